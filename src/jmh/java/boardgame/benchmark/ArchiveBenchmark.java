@@ -0,0 +1,83 @@
+package boardgame.benchmark;
+
+import boardgame.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArchiveBenchmark {
+    /**
+     * Benchmarks of replaying an archive of random standard games, through the model and through the state
+     */
+
+    @Param({"10000"})
+    private int gameCount;
+
+    private Path directory;
+    private GameArchive archive;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("games");
+        Path path = directory.resolve("games.bin");
+        var spec = BoardSpec.STANDARD;
+        int[] moves = new int[spec.getMaxMoves()];
+        var random = new SplittableRandom(24);
+        try (var writer = GameArchiveWriter.open(path)) {
+            for (int i = 0; i < gameCount; i++) {
+                var state = GameState.of(spec);
+                while (!state.isGameOver()) {
+                    state.makeMove(moves[random.nextInt(state.generateMoves(moves))]);
+                }
+                writer.write("Player" + i % 100, "Player" + (i + 1) % 100, state);
+            }
+        }
+        archive = GameArchive.open(path);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(directory.resolve("games.bin"));
+        Files.delete(directory);
+    }
+
+    /**
+     * Replays every game through a new BoardGameModel, returns the number of Player1 wins
+     */
+    @Benchmark
+    public int replayModels() {
+        int wins = 0;
+        var cursor = archive.cursor();
+        while (cursor.next()) {
+            if (cursor.replay().getState().getWinner() == PieceType.BLUE) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+
+    /**
+     * Replays every game through a new GameState without checking the moves, returns the number of Player1 wins
+     */
+    @Benchmark
+    public int replayStates() {
+        int wins = 0;
+        var cursor = archive.cursor();
+        while (cursor.next()) {
+            if (cursor.replay(GameState.of(cursor.getSpec())).getWinner() == PieceType.BLUE) {
+                wins++;
+            }
+        }
+        return wins;
+    }
+}
@@ -0,0 +1,114 @@
+package boardgame.benchmark;
+
+import boardgame.model.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelBenchmark {
+    /**
+     * Benchmarks of the BoardGameModel operations used by the UI and the engines
+     * Moves are taken back after each invocation, so every invocation starts from the same position
+     */
+
+    private BoardGameModel start;
+    private BoardGameModel redCapture;
+    private BoardGameModel blueCapture;
+    private Position redPosition;
+    private Position emptyPosition;
+
+    @Setup
+    public void setup() {
+        start = new BoardGameModel();
+        // Player1 piece 3 walks up to row 1, Player2 piece 0 walks down the first column
+        redCapture = new BoardGameModel();
+        for (int i = 0; i < 3; i++) {
+            redCapture.blueMove(3, BlueDirection.UP);
+            redCapture.redMove(0, RedDirection.DOWN);
+        }
+        redCapture.blueMove(3, BlueDirection.UP);
+        blueCapture = new BoardGameModel();
+        for (int i = 0; i < 4; i++) {
+            blueCapture.blueMove(3, BlueDirection.UP);
+            blueCapture.redMove(0, RedDirection.DOWN);
+        }
+        redPosition = new Position(0, 5);
+        emptyPosition = new Position(2, 2);
+    }
+
+    @Benchmark
+    public void isValidRedMove(Blackhole blackhole) {
+        for (int i = 0; i < start.getRedPieceCount(); i++) {
+            for (var direction : RedDirection.values()) {
+                blackhole.consume(start.isValidRedMove(i, direction));
+            }
+        }
+    }
+
+    @Benchmark
+    public void isValidBlueMove(Blackhole blackhole) {
+        for (int i = 0; i < start.getBluePieceCount(); i++) {
+            for (var direction : BlueDirection.values()) {
+                blackhole.consume(start.isValidBlueMove(i, direction));
+            }
+        }
+    }
+
+    @Benchmark
+    public Set<RedDirection> getAllRedValidMoves() {
+        return start.getAllRedValidMoves();
+    }
+
+    @Benchmark
+    public Set<BlueDirection> getAllBlueValidMoves() {
+        return start.getAllBlueValidMoves();
+    }
+
+    @Benchmark
+    public long blueMove() {
+        start.blueMove(3, BlueDirection.UP);
+        long hash = start.getHash();
+        start.unmakeMove();
+        return hash;
+    }
+
+    @Benchmark
+    public long redMoveCapture() {
+        redCapture.redMove(2, RedDirection.DOWN_RIGHT);
+        long hash = redCapture.getHash();
+        redCapture.unmakeMove();
+        return hash;
+    }
+
+    @Benchmark
+    public long blueMoveCapture() {
+        blueCapture.blueMove(3, BlueDirection.UP_LEFT);
+        long hash = blueCapture.getHash();
+        blueCapture.unmakeMove();
+        return hash;
+    }
+
+    @Benchmark
+    public OptionalInt getRedPieceNumber() {
+        return start.getRedPieceNumber(redPosition);
+    }
+
+    @Benchmark
+    public OptionalInt getRedPieceNumberMiss() {
+        return start.getRedPieceNumber(emptyPosition);
+    }
+
+    @Benchmark
+    public String modelToString() {
+        return start.toString();
+    }
+}
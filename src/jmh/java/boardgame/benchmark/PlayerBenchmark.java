@@ -0,0 +1,121 @@
+package boardgame.benchmark;
+
+import boardgame.Player;
+import boardgame.PlayerRegistry;
+import boardgame.PlayerStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PlayerBenchmark {
+    /**
+     * Benchmarks of saving the players database: rewriting the whole JSON file, as EndController used to do it,
+     * and appending a result to the log of <code>PlayerStore</code>, and of recording a result in memory
+     */
+
+    @Param({"10", "1000"})
+    private int playerCount;
+
+    private List<Player> players;
+    private ObjectWriter writer;
+    private Path directory;
+    private PlayerStore store;
+    private int game;
+
+    @Setup
+    public void setup() throws IOException {
+        players = new ArrayList<>();
+        for (int i = 0; i < playerCount; i++) {
+            players.add(new Player("Player" + i, i % 17));
+        }
+        writer = new ObjectMapper().writerWithDefaultPrettyPrinter();
+        directory = Files.createTempDirectory("players");
+        store = PlayerStore.open(directory.resolve("players.json"));
+        for (int i = 0; i < playerCount; i++) {
+            store.recordGame("Player" + i, "Player" + (i + 1) % playerCount);
+        }
+        store.compact();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        try (var files = Files.list(directory)) {
+            for (var file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Writes the players with a new ObjectMapper, as every save does
+     */
+    @Benchmark
+    public void writePlayersNewMapper() throws IOException {
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(OutputStream.nullOutputStream(), players);
+    }
+
+    /**
+     * Writes the players with a reused writer
+     */
+    @Benchmark
+    public void writePlayers() throws IOException {
+        writer.writeValue(OutputStream.nullOutputStream(), players);
+    }
+
+    /**
+     * Records a result in the store, one line appended to its log and flushed to the disk
+     */
+    @Benchmark
+    public void recordGame() throws IOException {
+        game++;
+        store.recordGame("Player" + game % playerCount, "Player" + (game + 1) % playerCount);
+    }
+
+    /**
+     * Streams every player of the store to a new snapshot
+     */
+    @Benchmark
+    public void compact() throws IOException {
+        store.compact();
+    }
+
+    /**
+     * Opens a second store on the same files, streaming the snapshot and the log
+     */
+    @Benchmark
+    public int openStore() throws IOException {
+        try (var other = PlayerStore.open(directory.resolve("players.json"))) {
+            return other.getPlayerCount();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedRegistry {
+        private final PlayerRegistry registry = new PlayerRegistry();
+    }
+
+    /**
+     * Records a result in a registry shared by every benchmark thread, run it with <code>-t</code> to measure contention
+     */
+    @Benchmark
+    public void recordGameInRegistry(SharedRegistry shared) {
+        game++;
+        shared.registry.recordGame("Player" + game % playerCount, "Player" + (game + 1) % playerCount);
+    }
+}
@@ -1,6 +1,9 @@
 package boardgame;
 
+import boardgame.model.GameArchiveWriter;
+
 import java.io.IOException;
+import java.nio.file.Path;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -9,15 +12,62 @@ import javafx.stage.Stage;
 
 public class BoardGameApplication extends Application {
 
+    /**
+     * Location of the player statistics, in the working directory
+     */
+    public static final Path PLAYERS_PATH = Path.of("players.json");
+
+    /**
+     * Location of the archive of finished games, in the working directory
+     */
+    public static final Path GAMES_PATH = Path.of("games.bin");
+
+    /**
+     * Location of the opening book of the computer player, in the working directory, used if it exists
+     */
+    public static final Path BOOK_PATH = Path.of("book.bin");
+
+    /**
+     * Player statistics, loaded once when the application starts
+     */
+    private PlayerStore playerStore;
+
+    /**
+     * Archive of finished games, opened once when the application starts
+     */
+    private GameArchiveWriter gameArchive;
+
+    /**
+     * Loads the player statistics, before the application window is created
+     */
+    @Override
+    public void init() throws IOException {
+        playerStore = PlayerStore.open(PLAYERS_PATH);
+        gameArchive = GameArchiveWriter.open(GAMES_PATH);
+    }
+
     /**
      * Sets up the application window.
      */
     @Override
     public void start(Stage stage) throws IOException {
-        Parent root = FXMLLoader.load(getClass().getResource("/welcome.fxml"));
+        FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/welcome.fxml"));
+        Parent root = fxmlLoader.load();
+        WelcomeController controller = fxmlLoader.<WelcomeController>getController();
+        controller.setPlayerStore(playerStore);
+        controller.setGameArchive(gameArchive);
         stage.setTitle("2.4 Board Game");
         stage.setScene(new Scene(root));
         stage.setResizable(false);
         stage.show();
     }
+
+    /**
+     * Closes the player statistics and the game archive
+     */
+    @Override
+    public void stop() throws IOException {
+        playerStore.close();
+        gameArchive.close();
+    }
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package boardgame;
 
+import boardgame.engine.OpeningBook;
+import boardgame.engine.SearchResult;
 import boardgame.model.*;
 import javafx.beans.value.ObservableValue;
+import javafx.css.PseudoClass;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
@@ -14,7 +17,10 @@ import javafx.scene.shape.Circle;
 import javafx.stage.Stage;
 import org.tinylog.Logger;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class BoardGameController {
@@ -59,6 +65,13 @@ public class BoardGameController {
         }
     }
 
+    /**
+     * CSS pseudo-classes of the highlighted squares, switching a pseudo-class keeps the style classes
+     * of the square, so the styles of the node do not have to be looked up again
+     */
+    private static final PseudoClass SELECTABLE = PseudoClass.getPseudoClass("selectable");
+    private static final PseudoClass SELECTED = PseudoClass.getPseudoClass("selected");
+
     /**
      * Stores the current stage of the game
      */
@@ -84,6 +97,27 @@ public class BoardGameController {
      */
     private BoardGameModel model = new BoardGameModel();
 
+    /**
+     * Observable piece positions of <code>model</code>, the squares follow them
+     */
+    private PiecePositionProperties positions = new PiecePositionProperties(model);
+
+    /**
+     * Computer player and the pieces it plays, null if both players are human
+     */
+    private ComputerPlayer computer;
+    private PieceType computerType;
+
+    /**
+     * Player statistics, the result of the game is recorded in it
+     */
+    private PlayerStore playerStore;
+
+    /**
+     * Archive of finished games, the moves of the game are appended to it
+     */
+    private GameArchiveWriter gameArchive;
+
     /**
      * Stores the name of the players
      */
@@ -93,6 +127,21 @@ public class BoardGameController {
     @FXML
     private GridPane board;
 
+    /**
+     * Squares of <code>board</code> indexed by row and column, built once in <code>createBoard()</code>
+     */
+    private StackPane[][] squares;
+
+    /**
+     * Squares currently shown as selectable, only the squares whose state changes are updated
+     */
+    private boolean[][] shownSelectable;
+
+    /**
+     * Grid the next selectable squares are marked in, swapped with <code>shownSelectable</code> once they are shown
+     */
+    private boolean[][] nextSelectable;
+
     /**
      * Sets up the base of the game on the application window
      */
@@ -109,9 +158,13 @@ public class BoardGameController {
      * Creates the board using <code>createSquare()</code>
      */
     private void createBoard() {
+        squares = new StackPane[board.getRowCount()][board.getColumnCount()];
+        shownSelectable = new boolean[board.getRowCount()][board.getColumnCount()];
+        nextSelectable = new boolean[board.getRowCount()][board.getColumnCount()];
         for (int i = 0; i < board.getRowCount(); i++) {
             for (int j = 0; j < board.getColumnCount(); j++) {
                 var square = createSquare(i, j);
+                squares[i][j] = square;
                 board.add(square, j, i);
             }
         }
@@ -133,13 +186,13 @@ public class BoardGameController {
     private void createPieces() {
         for (int i = 0; i < model.getRedPieceCount(); i++) {
 
-            model.redPositionProperty(i).addListener(this::piecePositionChange);
+            positions.redPositionProperty(i).addListener(this::piecePositionChange);
             var redPiece = createPiece(Color.valueOf(model.getRedPieceType(i).name()));
             getSquare(model.getRedPiecePosition(i)).getChildren().add(redPiece);
         }
 
         for (int i = 0; i < model.getBluePieceCount(); i++) {
-            model.bluePositionProperty(i).addListener(this::piecePositionChange);
+            positions.bluePositionProperty(i).addListener(this::piecePositionChange);
             var bluePiece = createPiece(Color.valueOf(model.getBluePieceType(i).name()));
             getSquare(model.getBluePiecePosition(i)).getChildren().add(bluePiece);
         }
@@ -172,6 +225,9 @@ public class BoardGameController {
      * Handles mouse click on squares for different selectionPhases
      */
     private void handleClickOnSquare(Position position) {
+        if (isComputerTurn()) {
+            return;
+        }
         switch (selectionPhase) {
             case SELECT_FROM_BLUE: {
                 if (selectablePositions.contains(position)) {
@@ -245,14 +301,18 @@ public class BoardGameController {
      */
     private void alterSelectionPhase() {
         selectionPhase = selectionPhase.alter();
-        hideSelectablePositions();
         setSelectablePositions();
         showSelectablePositions();
-        if (model.getAllBlueValidMoves().isEmpty()) {
+        // The winner is decided by the rule of the state, so the statistics agree with the archive and the engines
+        var winner = model.getState().getWinner();
+        if (winner == PieceType.BLUE) {
+            endGame(P1name, P2name);
+        }
+        else if (winner == PieceType.RED) {
             endGame(P2name, P1name);
         }
-        if (model.getAllRedValidMoves().isEmpty()) {
-            endGame(P1name, P2name);
+        else if (isComputerTurn()) {
+            startComputerMove();
         }
     }
 
@@ -261,7 +321,6 @@ public class BoardGameController {
      */
     private void backToPieceSelection() {
         selectionPhase = selectionPhase.alterBack();
-        hideSelectablePositions();
         setSelectablePositions();
         showSelectablePositions();
     }
@@ -279,8 +338,7 @@ public class BoardGameController {
      * Displays selected position
      */
     private void showSelectedPosition() {
-        var square = getSquare(selected);
-        square.getStyleClass().add("selected");
+        getSquare(selected).pseudoClassStateChanged(SELECTED, true);
     }
 
     /**
@@ -295,8 +353,7 @@ public class BoardGameController {
      * Hides the selected position
      */
     private void hideSelectedPosition() {
-        var square = getSquare(selected);
-        square.getStyleClass().remove("selected");
+        getSquare(selected).pseudoClassStateChanged(SELECTED, false);
     }
 
     /**
@@ -316,55 +373,55 @@ public class BoardGameController {
      */
     private void setSelectablePositions() {
         selectablePositions.clear();
+        if (isComputerTurn()) {
+            return;
+        }
         switch (selectionPhase) {
             case SELECT_FROM_BLUE -> selectablePositions.addAll(model.getNotFinishedBluePiecePositions());
             case SELECT_TO_BLUE -> {
                 var pieceNumber = model.getBluePieceNumber(selected).getAsInt();
                 for (var direction : model.getBlueValidMoves(pieceNumber)) {
-                    selectablePositions.add(selected.moveTo(direction));
+                    selectablePositions.add(model.getTargetPosition(selected, direction));
                 }
             }
             case SELECT_FROM_RED -> selectablePositions.addAll(model.getNotFinishedRedPiecePositions());
             case SELECT_TO_RED -> {
                 var pieceNumber = model.getRedPieceNumber(selected).getAsInt();
                 for (var direction : model.getRedValidMoves(pieceNumber)) {
-                    selectablePositions.add(selected.moveTo(direction));
+                    selectablePositions.add(model.getTargetPosition(selected, direction));
                 }
             }
         }
     }
 
     /**
-     * Displays selectable positions
+     * Displays selectable positions, hides the ones that are no longer selectable
+     * Only the squares whose state changes are touched, the CSS pass of the next pulse applies all of them at once
      */
     private void showSelectablePositions() {
-        for (var selectablePosition : selectablePositions) {
-            var square = getSquare(selectablePosition);
-            square.getStyleClass().add("selectable");
+        var selectable = nextSelectable;
+        for (var row : selectable) {
+            Arrays.fill(row, false);
         }
-    }
-
-    /**
-     * Hides selectable positions
-     */
-    private void hideSelectablePositions() {
         for (var selectablePosition : selectablePositions) {
-            var square = getSquare(selectablePosition);
-            square.getStyleClass().remove("selectable");
+            selectable[selectablePosition.row()][selectablePosition.col()] = true;
+        }
+        for (int i = 0; i < squares.length; i++) {
+            for (int j = 0; j < squares[i].length; j++) {
+                if (selectable[i][j] != shownSelectable[i][j]) {
+                    squares[i][j].pseudoClassStateChanged(SELECTABLE, selectable[i][j]);
+                }
+            }
         }
+        nextSelectable = shownSelectable;
+        shownSelectable = selectable;
     }
 
     /**
      * Returns a square at a given <code>position</code>
      */
     private StackPane getSquare(Position position) {
-        for (var child : board.getChildren()) {
-            if (GridPane.getRowIndex(child) == null) continue;
-            if (GridPane.getRowIndex(child) == position.row() && GridPane.getColumnIndex(child) == position.col()) {
-                return (StackPane) child;
-            }
-        }
-        throw new AssertionError();
+        return squares[position.row()][position.col()];
     }
 
     private void piecePositionChange(ObservableValue<? extends Position> observable, Position oldPosition, Position newPosition) {
@@ -375,6 +432,92 @@ public class BoardGameController {
         oldSquare.getChildren().clear();
     }
 
+    /**
+     * Lets the computer play the pieces of <code>type</code>, it moves at once if it is its turn
+     */
+    public void setComputerPlayer(PieceType type) {
+        Logger.info("Computer plays {}", type);
+        computer = new ComputerPlayer();
+        if (Files.exists(BoardGameApplication.BOOK_PATH)) {
+            try {
+                computer.setOpeningBook(OpeningBook.open(BoardGameApplication.BOOK_PATH));
+            } catch (IOException | IllegalArgumentException e) {
+                Logger.warn(e, "Could not open the opening book");
+            }
+        }
+        computerType = type;
+        setSelectablePositions();
+        showSelectablePositions();
+        if (isComputerTurn()) {
+            startComputerMove();
+        }
+    }
+
+    /**
+     * Checks if the computer moves next
+     */
+    private boolean isComputerTurn() {
+        return computer != null && model.getNextPlayer() == computerType;
+    }
+
+    /**
+     * Starts the search of the computer, the board stays responsive while it runs
+     */
+    private void startComputerMove() {
+        computer.requestMove(model.getState(), this::showSearchProgress, this::makeComputerMove);
+    }
+
+    /**
+     * Displays the progress of the computer's search in the window title
+     */
+    private void showSearchProgress(SearchResult result) {
+        if (board.getScene() != null && board.getScene().getWindow() instanceof Stage stage) {
+            stage.setTitle(String.format("2.4 Board Game - thinking: depth %d, %s, %d nodes/s",
+                    result.depth(), Move.toString(computerType, result.move()), result.nodesPerSecond()));
+        }
+    }
+
+    /**
+     * Makes the <code>move</code> chosen by the computer, then it is the other player's turn
+     */
+    private void makeComputerMove(int move) {
+        if (move == Move.NONE) {
+            return;
+        }
+        Logger.info("Computer moves {}", Move.toString(computerType, move));
+        if (board.getScene() != null && board.getScene().getWindow() instanceof Stage stage) {
+            stage.setTitle("2.4 Board Game");
+        }
+        model.makeMove(move);
+        selectionPhase = selectionPhase.alter();
+        alterSelectionPhase();
+    }
+
+    /**
+     * Aborts the computer's search and stops listening to the model, called when the game window is left
+     */
+    public void dispose() {
+        if (computer != null) {
+            computer.shutdown();
+            computer = null;
+        }
+        positions.dispose();
+    }
+
+    /**
+     * Setter of <code>gameArchive</code>
+     */
+    public void setGameArchive(GameArchiveWriter gameArchive) {
+        this.gameArchive = gameArchive;
+    }
+
+    /**
+     * Setter of <code>playerStore</code>
+     */
+    public void setPlayerStore(PlayerStore playerStore) {
+        this.playerStore = playerStore;
+    }
+
     /**
      * Setter of <code>P1name</code> and <code>P2name</code>
      */
@@ -384,14 +527,32 @@ public class BoardGameController {
         this.P2name = name2;
     }
 
+    /**
+     * Appends the moves of the finished game to the game archive
+     */
+    private void archiveGame() {
+        if (gameArchive == null) {
+            return;
+        }
+        try {
+            gameArchive.write(P1name, P2name, model.getState());
+        } catch (IOException | IllegalArgumentException e) {
+            Logger.error(e, "Could not archive the game");
+        }
+    }
+
     /**
      * Sets up the application end window
      */
     private void endGame(String winnerName, String loserName) {
+        dispose();
+        archiveGame();
         FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/end.fxml"));
         try {
             Parent root = fxmlLoader.load();
             EndController controller = fxmlLoader.<EndController>getController();
+            controller.setPlayerStore(playerStore);
+            controller.setGameArchive(gameArchive);
             controller.setNames(winnerName, loserName);
             Stage stage = (Stage) board.getScene().getWindow();
             stage.setScene(new Scene(root));
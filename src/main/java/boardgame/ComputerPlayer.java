@@ -0,0 +1,130 @@
+package boardgame;
+
+import boardgame.engine.AlphaBetaEngine;
+import boardgame.engine.OpeningBook;
+import boardgame.engine.SearchListener;
+import boardgame.engine.TranspositionTable;
+import boardgame.model.GameState;
+import javafx.application.Platform;
+import org.tinylog.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+public class ComputerPlayer {
+    /**
+     * Computer player of the UI, runs an <code>AlphaBetaEngine</code> off the JavaFX application thread
+     * The search works on a copy of the game state on a background thread, using every core.
+     * Its progress and the chosen move are passed to the application thread by <code>Platform.runLater</code>.
+     * Every request gets a number and its own stop flag, the results of a cancelled request are dropped.
+     * Cancelling sets the flag, so a search still queued behind another one returns as soon as it starts.
+     */
+
+    /**
+     * Default time budget of a move in milliseconds
+     */
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 2000;
+
+    private final AlphaBetaEngine engine;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "computer-player");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger request = new AtomicInteger();
+    private Future<?> running;
+    private AtomicBoolean stopped;
+
+    /**
+     * Constructor of ComputerPlayer with <code>DEFAULT_TIME_BUDGET_MILLIS</code>
+     */
+    public ComputerPlayer() {
+        this(DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * Constructor of ComputerPlayer
+     */
+    public ComputerPlayer(long timeBudgetMillis) {
+        this.engine = new AlphaBetaEngine(timeBudgetMillis, new TranspositionTable(64));
+        engine.setThreads(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Sets the opening book the moves of the first plies are taken from, or null
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        // The engine is locked while it searches, the book is set between two searches
+        executor.execute(() -> engine.setOpeningBook(openingBook));
+    }
+
+    /**
+     * Starts searching the move of the player who moves next in <code>state</code>, cancels the running search
+     * <code>progress</code> is called after every completed iteration, <code>moveSelected</code> with the chosen move,
+     * both on the JavaFX application thread. Must be called on the JavaFX application thread
+     */
+    public void requestMove(GameState state, SearchListener progress, IntConsumer moveSelected) {
+        cancel();
+        var snapshot = state.copy();
+        int number = request.get();
+        var stopped = new AtomicBoolean();
+        this.stopped = stopped;
+        running = executor.submit(() -> {
+            if (stopped.get()) {
+                return;
+            }
+            engine.setSearchListener(result -> Platform.runLater(() -> {
+                if (request.get() == number) {
+                    progress.iterationCompleted(result);
+                }
+            }));
+            try {
+                int move = engine.search(snapshot, stopped).move();
+                Platform.runLater(() -> {
+                    if (request.get() == number) {
+                        running = null;
+                        moveSelected.accept(move);
+                    }
+                });
+            } catch (RuntimeException e) {
+                Logger.error(e, "Search failed");
+            }
+        });
+    }
+
+    /**
+     * Checks if a search was requested and its move is not selected yet
+     */
+    public boolean isThinking() {
+        return running != null;
+    }
+
+    /**
+     * Aborts the running search, its move is not selected
+     */
+    public void cancel() {
+        request.incrementAndGet();
+        if (stopped != null) {
+            stopped.set(true);
+            stopped = null;
+        }
+        if (running != null) {
+            running.cancel(false);
+            running = null;
+        }
+    }
+
+    /**
+     * Aborts the running search and stops the threads of the player
+     */
+    public void shutdown() {
+        cancel();
+        // The engine is locked while it searches, its helper threads are stopped after the search returns
+        executor.execute(() -> engine.setThreads(1));
+        executor.shutdown();
+    }
+}
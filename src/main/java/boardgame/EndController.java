@@ -1,6 +1,6 @@
 package boardgame;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import boardgame.model.GameArchiveWriter;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
@@ -9,15 +9,10 @@ import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.text.Text;
-import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import org.tinylog.Logger;
 
-import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.io.IOException;
 
 public class EndController {
     /**
@@ -34,7 +29,17 @@ public class EndController {
     private String other;
 
     /**
-     * When the scene window is set, the program serializes players.json database
+     * Player statistics, the result is recorded in it
+     */
+    private PlayerStore playerStore;
+
+    /**
+     * Archive of finished games, passed on to the next game
+     */
+    private GameArchiveWriter gameArchive;
+
+    /**
+     * When the scene window is set, the program records the result in the player statistics
      */
     @FXML
     private void initialize() {
@@ -47,6 +52,20 @@ public class EndController {
         });
     }
 
+    /**
+     * Setter of <code>playerStore</code>
+     */
+    public void setPlayerStore(PlayerStore playerStore) {
+        this.playerStore = playerStore;
+    }
+
+    /**
+     * Setter of <code>gameArchive</code>
+     */
+    public void setGameArchive(GameArchiveWriter gameArchive) {
+        this.gameArchive = gameArchive;
+    }
+
     /**
      * Setters for the names, also sets the FXML text
      */
@@ -65,6 +84,9 @@ public class EndController {
         Logger.info("New Game Started");
         FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/welcome.fxml"));
         Parent root = fxmlLoader.load();
+        WelcomeController controller = fxmlLoader.<WelcomeController>getController();
+        controller.setPlayerStore(playerStore);
+        controller.setGameArchive(gameArchive);
         Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
         stage.setScene(new Scene(root));
         stage.show();
@@ -79,46 +101,14 @@ public class EndController {
     }
 
     /**
-     * Serializes players.json database
+     * Records the result in the player statistics, appending it to their log
      */
     private void updatePlayers() throws IOException {
-        var mapper = new ObjectMapper();
-
-        Player.players = new ArrayList<Player>();
-
-        //Player.players = new ArrayList<Player>(Arrays.asList(mapper.readValue(getClass().getClassLoader().getResource("players.json"), Player[].class)));
-
-        //Player.players = new ArrayList<Player>(Arrays.asList(mapper.readValue(new FileReader("players.json"), Player[].class)));
-
-        if (Player.getNames().contains(this.winner)) {
-            for (var player : Player.players) {
-                if (player.getName().equals(this.winner)) {
-                    player.setWins(player.getWins() + 1);
-                }
-            }
-        }
-        else {
-            new Player(this.winner, 1);
-        }
-
-        if (!Player.getNames().contains(this.other)) {
-            new Player(this.other, 0);
+        if (playerStore == null) {
+            Logger.warn("No player statistics, the result is not recorded");
+            return;
         }
-
-        FileChooser fileChooser = new FileChooser();
-        File file = fileChooser.showSaveDialog(null);
-
-        if (file != null) {
-            Logger.debug("Saving file as {}", file);
-            try (var writer = new FileWriter(file)) {
-                mapper.writerWithDefaultPrettyPrinter().writeValue(writer, Player.players);
-            } catch (IOException e) {
-                Logger.error(e, "Failed to save file");
-            }
-        }
-
-        /*try (var writer = new FileWriter("players.json")) {
-                mapper.writerWithDefaultPrettyPrinter().writeValue(writer, Player.players);
-        }*/
+        playerStore.recordGame(this.winner, this.other);
+        Logger.debug("Recorded the win of {} against {}", this.winner, this.other);
     }
-}
\ No newline at end of file
+}
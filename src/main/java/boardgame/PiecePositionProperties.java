@@ -0,0 +1,77 @@
+package boardgame;
+
+import boardgame.model.BoardGameModel;
+import boardgame.model.Piece;
+import boardgame.model.PieceListener;
+import boardgame.model.PieceType;
+import boardgame.model.Position;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+public class PiecePositionProperties implements PieceListener {
+    /**
+     * Observable adapter of a <code>BoardGameModel</code> for the UI
+     * Exposes the position of each piece as a JavaFX property, created on first use
+     * and kept up to date by listening to the piece moves of the model
+     * The properties are indexed by the id of the piece, so a capture does not move them
+     */
+
+    private final BoardGameModel model;
+    private final ReadOnlyObjectWrapper<Position>[] redProperties;
+    private final ReadOnlyObjectWrapper<Position>[] blueProperties;
+
+    /**
+     * Constructor of PiecePositionProperties, starts listening to <code>model</code>
+     */
+    @SuppressWarnings("unchecked")
+    public PiecePositionProperties(BoardGameModel model) {
+        this.model = model;
+        this.redProperties = (ReadOnlyObjectWrapper<Position>[]) new ReadOnlyObjectWrapper<?>[model.getSpec().getRedStart().length];
+        this.blueProperties = (ReadOnlyObjectWrapper<Position>[]) new ReadOnlyObjectWrapper<?>[model.getSpec().getBlueStart().length];
+        model.addPieceListener(this);
+    }
+
+    /**
+     * Returns Player2 piece position property at given index
+     */
+    public ReadOnlyObjectProperty<Position> redPositionProperty(int pieceNumber) {
+        return propertyOf(model.getRedPiece(pieceNumber));
+    }
+
+    /**
+     * Returns Player1 piece position property at given index
+     */
+    public ReadOnlyObjectProperty<Position> bluePositionProperty(int pieceNumber) {
+        return propertyOf(model.getBluePiece(pieceNumber));
+    }
+
+    private ReadOnlyObjectProperty<Position> propertyOf(Piece piece) {
+        var properties = propertiesOf(piece);
+        if (properties[piece.getId()] == null) {
+            properties[piece.getId()] = new ReadOnlyObjectWrapper<>(piece.getPosition());
+        }
+        return properties[piece.getId()].getReadOnlyProperty();
+    }
+
+    private ReadOnlyObjectWrapper<Position>[] propertiesOf(Piece piece) {
+        return piece.getType() == PieceType.RED ? redProperties : blueProperties;
+    }
+
+    /**
+     * Updates the property of <code>piece</code>, if it was requested
+     */
+    @Override
+    public void pieceMoved(Piece piece, Position oldPosition, Position newPosition) {
+        var property = propertiesOf(piece)[piece.getId()];
+        if (property != null) {
+            property.set(newPosition);
+        }
+    }
+
+    /**
+     * Stops listening to the model
+     */
+    public void dispose() {
+        model.removePieceListener(this);
+    }
+}
@@ -3,37 +3,32 @@ package boardgame;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.lang.reflect.Array;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
-
 @Data
 @NoArgsConstructor
 public class Player {
-    private String name;
-    private int wins;
+    /**
+     * Statistics of a player, the element of the players database
+     * A plain value, the live statistics are kept by <code>PlayerRegistry</code>
+     */
 
-    public static List<Player> players;
+    private String name;
+    private long wins;
+    private long losses;
 
     /**
-     * Returns all player names
+     * Constructor of Player class
      */
-    public static Set<String> getNames() {
-        var names = new HashSet<String>();
-        for (var player : players) {
-            names.add(player.getName());
-        }
-        return names;
+    public Player(String name, long wins) {
+        this.name = name;
+        this.wins = wins;
     }
 
     /**
      * Constructor of Player class
      */
-    public Player(String name, int wins) {
+    public Player(String name, long wins, long losses) {
         this.name = name;
         this.wins = wins;
-        players.add(this);
+        this.losses = losses;
     }
-}
\ No newline at end of file
+}
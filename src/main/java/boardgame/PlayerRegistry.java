@@ -0,0 +1,104 @@
+package boardgame;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class PlayerRegistry implements Iterable<Player> {
+    /**
+     * Thread-safe statistics of the players, indexed by name
+     * The counters of a player are <code>LongAdder</code>s in a <code>ConcurrentHashMap</code>,
+     * so results finishing at the same time are recorded without locking and without lost updates.
+     * A snapshot is a list of <code>Player</code> values, each of them read while results may still be recorded.
+     * Iterating the registry creates the values one at a time, in no particular order.
+     */
+
+    private static final class Statistics {
+        private final LongAdder wins = new LongAdder();
+        private final LongAdder losses = new LongAdder();
+    }
+
+    private final ConcurrentHashMap<String, Statistics> players = new ConcurrentHashMap<>();
+
+    private Statistics statisticsOf(String name) {
+        return players.computeIfAbsent(Objects.requireNonNull(name), key -> new Statistics());
+    }
+
+    /**
+     * Adds the wins and losses of <code>player</code> to the player of the same name
+     */
+    public void add(Player player) {
+        var statistics = statisticsOf(player.getName());
+        statistics.wins.add(player.getWins());
+        statistics.losses.add(player.getLosses());
+    }
+
+    /**
+     * Records a game won by <code>winner</code> against <code>loser</code>
+     */
+    public void recordGame(String winner, String loser) {
+        statisticsOf(winner).wins.increment();
+        statisticsOf(loser).losses.increment();
+    }
+
+    /**
+     * Checks if the player called <code>name</code> has played
+     */
+    public boolean contains(String name) {
+        return players.containsKey(name);
+    }
+
+    /**
+     * Returns the number of players
+     */
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * Returns the statistics of the player called <code>name</code>
+     */
+    public Optional<Player> getPlayer(String name) {
+        var statistics = players.get(name);
+        return statistics == null ? Optional.empty() : Optional.of(toPlayer(name, statistics));
+    }
+
+    /**
+     * Returns the statistics of every player ordered by name
+     */
+    public List<Player> snapshot() {
+        List<Player> result = new ArrayList<>(players.size());
+        players.forEach((name, statistics) -> result.add(toPlayer(name, statistics)));
+        result.sort(Comparator.comparing(Player::getName));
+        return result;
+    }
+
+    /**
+     * Returns an iterator over the statistics of every player, creating each value when it is reached
+     */
+    @Override
+    public Iterator<Player> iterator() {
+        var entries = players.entrySet().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return entries.hasNext();
+            }
+
+            @Override
+            public Player next() {
+                var entry = entries.next();
+                return toPlayer(entry.getKey(), entry.getValue());
+            }
+        };
+    }
+
+    private static Player toPlayer(String name, Statistics statistics) {
+        return new Player(name, statistics.wins.sum(), statistics.losses.sum());
+    }
+}
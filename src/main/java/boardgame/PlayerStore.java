@@ -0,0 +1,330 @@
+package boardgame;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.tinylog.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class PlayerStore implements Closeable {
+    /**
+     * Durable store of the player statistics
+     * It keeps a snapshot of every player and an append-only log of the game results
+     * recorded since the snapshot, one JSON object per line.
+     * Both files are streamed one record at a time, so no JSON tree or list of every player is built.
+     * Both are loaded once, into a <code>PlayerRegistry</code>. Recording a result appends one line to the log
+     * and updates the registry. When the log is longer than the compaction threshold,
+     * the registry is written as the new snapshot and the log is emptied.
+     * Every result has a sequence number. The snapshot stores the number of the last result it contains,
+     * so replaying the log after a crash during compaction does not count any result twice.
+     * Results can be recorded by several threads at the same time, only a compaction waits for
+     * the results being recorded and holds up the new ones.
+     */
+
+    /**
+     * Default number of logged results that triggers a compaction
+     */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
+
+    /**
+     * Mapper of every store, creating the parsers and generators of the records
+     * A generator does not close its file, so the snapshot can be forced to the disk after it is written
+     */
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private final Path snapshotPath;
+    private final Path logPath;
+    private final PlayerRegistry players = new PlayerRegistry();
+    private final FileChannel log;
+    private final int compactionThreshold;
+    private final ReadWriteLock compaction = new ReentrantReadWriteLock();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger logLength = new AtomicInteger();
+
+    private PlayerStore(Path snapshotPath, int compactionThreshold) throws IOException {
+        this.snapshotPath = snapshotPath;
+        this.compactionThreshold = compactionThreshold;
+        this.logPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".log");
+        readSnapshot();
+        long length = readLog();
+        this.log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (log.size() > length) {
+            log.truncate(length);
+        }
+    }
+
+    /**
+     * Opens the store of the snapshot at <code>snapshotPath</code> and its log next to it,
+     * compacting after <code>DEFAULT_COMPACTION_THRESHOLD</code> results
+     */
+    public static PlayerStore open(Path snapshotPath) throws IOException {
+        return open(snapshotPath, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Opens the store of the snapshot at <code>snapshotPath</code> and its log next to it,
+     * the log is created on the first result. A snapshot of the old format, a plain array of players, is read as well
+     */
+    public static PlayerStore open(Path snapshotPath, int compactionThreshold) throws IOException {
+        var store = new PlayerStore(snapshotPath, compactionThreshold);
+        if (store.logLength.get() > compactionThreshold) {
+            store.compact();
+        }
+        return store;
+    }
+
+    private void readSnapshot() throws IOException {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        try (var parser = MAPPER.createParser(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_ARRAY) {
+                readPlayers(parser);
+                return;
+            }
+            expect(parser, token, JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                token = parser.nextToken();
+                if (field.equals("sequence")) {
+                    sequence.set(parser.getLongValue());
+                } else if (field.equals("players")) {
+                    expect(parser, token, JsonToken.START_ARRAY);
+                    readPlayers(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the players of the array the parser is at, one at a time, unknown fields are skipped
+     */
+    private void readPlayers(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            var player = new Player();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                switch (field) {
+                    case "name" -> player.setName(parser.getText());
+                    case "wins" -> player.setWins(parser.getLongValue());
+                    case "losses" -> player.setLosses(parser.getLongValue());
+                    default -> parser.skipChildren();
+                }
+            }
+            players.add(player);
+        }
+        expect(parser, parser.currentToken(), JsonToken.END_ARRAY);
+    }
+
+    private static void expect(JsonParser parser, JsonToken token, JsonToken expected) throws IOException {
+        if (token != expected) {
+            throw new IOException("Expected " + expected + " but found " + token + " at " + parser.getCurrentLocation());
+        }
+    }
+
+    /**
+     * Replays the log, returns the length of its complete lines
+     * The log is parsed as a stream, a line without its line break was being appended when the program stopped,
+     * it is ignored.
+     * Results recorded at the same time may be logged out of order, every result newer than the snapshot is applied
+     */
+    private long readLog() throws IOException {
+        if (!Files.exists(logPath)) {
+            return 0;
+        }
+        long size = Files.size(logPath);
+        long end = 0;
+        long last = sequence.get();
+        long newest = last;
+        try (var parser = MAPPER.createParser(new BufferedInputStream(Files.newInputStream(logPath)))) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                expect(parser, token, JsonToken.START_OBJECT);
+                long number = 0;
+                String winner = null;
+                String loser = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.getCurrentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "sequence" -> number = parser.getLongValue();
+                        case "winner" -> winner = parser.getText();
+                        case "loser" -> loser = parser.getText();
+                        default -> parser.skipChildren();
+                    }
+                }
+                // The line break is the only byte written after a record
+                long recordEnd = parser.getCurrentLocation().getByteOffset() + 1;
+                if (recordEnd > size) {
+                    break;
+                }
+                end = recordEnd;
+                logLength.incrementAndGet();
+                if (number > last) {
+                    players.recordGame(winner, loser);
+                    newest = Math.max(newest, number);
+                }
+            }
+        } catch (JsonEOFException e) {
+            // The unfinished record is dropped below
+        }
+        sequence.set(newest);
+        if (end < size) {
+            Logger.warn("Dropping {} bytes of an unfinished record at the end of {}", size - end, logPath);
+        }
+        return end;
+    }
+
+    /**
+     * Records a game won by <code>winner</code> against <code>loser</code>,
+     * the result is on disk when the method returns. Can be called by several threads at the same time
+     */
+    public void recordGame(String winner, String loser) throws IOException {
+        int length;
+        compaction.readLock().lock();
+        try {
+            var line = new ByteArrayOutputStream(64);
+            try (var generator = MAPPER.createGenerator(line)) {
+                generator.writeStartObject();
+                generator.writeNumberField("sequence", sequence.incrementAndGet());
+                generator.writeStringField("winner", winner);
+                generator.writeStringField("loser", loser);
+                generator.writeEndObject();
+            }
+            line.write('\n');
+            synchronized (log) {
+                write(log, line.toByteArray());
+            }
+            log.force(false);
+            players.recordGame(winner, loser);
+            length = logLength.incrementAndGet();
+        } finally {
+            compaction.readLock().unlock();
+        }
+        if (length > compactionThreshold) {
+            compaction.writeLock().lock();
+            try {
+                // Another thread may have compacted the log while this one waited
+                if (logLength.get() > compactionThreshold) {
+                    writeSnapshot();
+                }
+            } finally {
+                compaction.writeLock().unlock();
+            }
+        }
+    }
+
+    private static void write(FileChannel channel, byte[] bytes) throws IOException {
+        var buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Writes every player to a new snapshot and empties the log
+     * The snapshot replaces the old one atomically, the log is emptied only after that.
+     * Waits for the results being recorded
+     */
+    public void compact() throws IOException {
+        compaction.writeLock().lock();
+        try {
+            writeSnapshot();
+        } finally {
+            compaction.writeLock().unlock();
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        Path temporary = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            try (var generator = MAPPER.createGenerator(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16))
+                    .useDefaultPrettyPrinter()) {
+                generator.writeStartObject();
+                generator.writeNumberField("sequence", sequence.get());
+                generator.writeArrayFieldStart("players");
+                for (var player : players) {
+                    generator.writeStartObject();
+                    generator.writeStringField("name", player.getName());
+                    generator.writeNumberField("wins", player.getWins());
+                    generator.writeNumberField("losses", player.getLosses());
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.truncate(0);
+        log.force(true);
+        logLength.set(0);
+        Logger.debug("Compacted {} players into {}", players.size(), snapshotPath);
+    }
+
+    /**
+     * Returns a copy of the statistics of the player called <code>name</code>
+     */
+    public Optional<Player> getPlayer(String name) {
+        return players.getPlayer(name);
+    }
+
+    /**
+     * Returns a copy of the statistics of every player, ordered by name
+     */
+    public List<Player> getPlayers() {
+        return players.snapshot();
+    }
+
+    /**
+     * Returns the number of players
+     */
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    /**
+     * Returns the number of results in the log, not yet in the snapshot
+     */
+    public int getLogLength() {
+        return logLength.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        compaction.writeLock().lock();
+        try {
+            log.close();
+        } finally {
+            compaction.writeLock().unlock();
+        }
+    }
+}
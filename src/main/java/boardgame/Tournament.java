@@ -0,0 +1,170 @@
+package boardgame;
+
+import boardgame.engine.AlphaBetaEngine;
+import boardgame.engine.Engine;
+import boardgame.engine.MctsEngine;
+import boardgame.engine.RandomEngine;
+import boardgame.model.BoardSpec;
+import boardgame.model.GameState;
+import boardgame.model.PieceType;
+import org.tinylog.Logger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+public class Tournament {
+    /**
+     * Headless runner of computer vs computer games, without JavaFX
+     * The games are spread over a fixed thread pool, every thread has its own engines.
+     */
+
+    /**
+     * Result of a tournament
+     */
+    public record Result(int games, long blueWins, long redWins, long plies, long elapsedMillis) {
+
+        /**
+         * Returns the average number of moves of a game
+         */
+        public double averageLength() {
+            return (double) plies / Math.max(games, 1);
+        }
+
+        /**
+         * Returns the number of games played per second
+         */
+        public double gamesPerSecond() {
+            return games * 1000.0 / Math.max(elapsedMillis, 1);
+        }
+
+        /**
+         * Returns a String of the result
+         */
+        public String toString() {
+            return String.format("%d games, BLUE won %.1f%%, RED won %.1f%%, %.1f moves per game, %.1f games/s",
+                    games, 100.0 * blueWins / Math.max(games, 1), 100.0 * redWins / Math.max(games, 1),
+                    averageLength(), gamesPerSecond());
+        }
+    }
+
+    private final Supplier<Engine> blueEngine;
+    private final Supplier<Engine> redEngine;
+    private final int threads;
+
+    /**
+     * Constructor of Tournament
+     * <code>blueEngine</code> and <code>redEngine</code> create the players of a thread
+     */
+    public Tournament(Supplier<Engine> blueEngine, Supplier<Engine> redEngine, int threads) {
+        this.blueEngine = blueEngine;
+        this.redEngine = redEngine;
+        this.threads = threads;
+    }
+
+    /**
+     * Plays a game from <code>start</code>, returns the finished state
+     */
+    public static GameState play(GameState start, Engine blue, Engine red) {
+        var state = start.copy();
+        while (!state.isGameOver()) {
+            var engine = state.getNextPlayer() == PieceType.BLUE ? blue : red;
+            state.makeMove(engine.selectMove(state));
+        }
+        return state;
+    }
+
+    /**
+     * Plays <code>games</code> games from the starting position of the standard board
+     */
+    public Result run(int games) throws InterruptedException {
+        return run(BoardSpec.STANDARD, games);
+    }
+
+    /**
+     * Plays <code>games</code> games from the starting position of the board variant <code>spec</code>
+     */
+    public Result run(BoardSpec spec, int games) throws InterruptedException {
+        var start = GameState.of(spec);
+        var next = new AtomicInteger();
+        var blueWins = new LongAdder();
+        var redWins = new LongAdder();
+        var plies = new LongAdder();
+        var pool = Executors.newFixedThreadPool(threads);
+        long startTime = System.nanoTime();
+        try {
+            var futures = new Future<?>[threads];
+            for (int i = 0; i < threads; i++) {
+                futures[i] = pool.submit(() -> {
+                    var blue = blueEngine.get();
+                    var red = redEngine.get();
+                    while (next.getAndIncrement() < games) {
+                        var end = play(start, blue, red);
+                        (end.getWinner() == PieceType.BLUE ? blueWins : redWins).increment();
+                        plies.add(end.getPly());
+                    }
+                });
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        long elapsed = (System.nanoTime() - startTime) / 1_000_000;
+        return new Result(games, blueWins.sum(), redWins.sum(), plies.sum(), elapsed);
+    }
+
+    /**
+     * Returns a factory of the engine named <code>name</code>: "random", "alphabeta" or "mcts"
+     */
+    static Supplier<Engine> engine(String name, long timeBudgetMillis) {
+        var seeds = new AtomicInteger();
+        return switch (name) {
+            case "random" -> () -> new RandomEngine(System.nanoTime() + seeds.incrementAndGet());
+            case "alphabeta" -> () -> new AlphaBetaEngine(timeBudgetMillis);
+            case "mcts" -> () -> new MctsEngine(timeBudgetMillis, System.nanoTime() + seeds.incrementAndGet());
+            default -> throw new IllegalArgumentException("Unknown engine: " + name);
+        };
+    }
+
+    /**
+     * Runs a tournament
+     * Arguments (all optional): games=N threads=N blue=ENGINE red=ENGINE time=MS board=HxW,
+     * where ENGINE is "random", "alphabeta" or "mcts", MS is the time budget of a move
+     * and HxW the size of a board without black tiles (default: the standard board)
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (var arg : args) {
+            var parts = arg.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected key=value: " + arg);
+            }
+            options.put(parts[0], parts[1]);
+        }
+        int games = Integer.parseInt(options.getOrDefault("games", "1000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                Integer.toString(Runtime.getRuntime().availableProcessors())));
+        long time = Long.parseLong(options.getOrDefault("time", "10"));
+        String blue = options.getOrDefault("blue", "alphabeta");
+        String red = options.getOrDefault("red", "random");
+        var spec = BoardSpec.STANDARD;
+        if (options.containsKey("board")) {
+            var size = options.get("board").split("x", 2);
+            spec = BoardSpec.of(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+        }
+
+        Logger.info("Playing {} games of {} (BLUE) vs {} (RED) on {} threads, board {}",
+                games, blue, red, threads, spec);
+        var result = new Tournament(engine(blue, time), engine(red, time), threads).run(spec, games);
+        System.out.println(result);
+    }
+}
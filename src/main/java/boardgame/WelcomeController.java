@@ -1,11 +1,14 @@
 package boardgame;
 
+import boardgame.model.GameArchiveWriter;
+import boardgame.model.PieceType;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
 import org.tinylog.Logger;
@@ -22,12 +25,39 @@ public class WelcomeController {
     @FXML
     private TextField P2nameField;
 
+    @FXML
+    private CheckBox P2computerBox;
+
+    /**
+     * Player statistics, passed on to the game
+     */
+    private PlayerStore playerStore;
+
+    /**
+     * Archive of finished games, passed on to the game
+     */
+    private GameArchiveWriter gameArchive;
+
     @FXML
     private void initialize() {
         P1nameField.setText("Player1");
         P2nameField.setText("Player2");
     }
 
+    /**
+     * Setter of <code>playerStore</code>
+     */
+    public void setPlayerStore(PlayerStore playerStore) {
+        this.playerStore = playerStore;
+    }
+
+    /**
+     * Setter of <code>gameArchive</code>
+     */
+    public void setGameArchive(GameArchiveWriter gameArchive) {
+        this.gameArchive = gameArchive;
+    }
+
     public String getP1name() {
         return P1nameField.getText();
     }
@@ -48,8 +78,14 @@ public class WelcomeController {
         Parent root = fxmlLoader.load();
         BoardGameController controller = fxmlLoader.<BoardGameController>getController();
         controller.setNames(P1nameField.getText(), P2nameField.getText());
+        controller.setPlayerStore(playerStore);
+        controller.setGameArchive(gameArchive);
         Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
+        stage.setOnCloseRequest(closeEvent -> controller.dispose());
         stage.setScene(new Scene(root));
         stage.show();
+        if (P2computerBox.isSelected()) {
+            controller.setComputerPlayer(PieceType.RED);
+        }
     }
 }
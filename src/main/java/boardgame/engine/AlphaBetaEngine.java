@@ -0,0 +1,435 @@
+package boardgame.engine;
+
+import boardgame.model.BoardState;
+import boardgame.model.GameState;
+import boardgame.model.Move;
+import boardgame.model.PieceType;
+import org.tinylog.Logger;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+public class AlphaBetaEngine implements Engine {
+    /**
+     * Computer player using negamax alpha-beta search with iterative deepening
+     * Moves are ordered by the transposition table move, then captures, then the history heuristic.
+     * The search stops when the time budget of the move runs out, the result of the
+     * last completed iteration is played.
+     * With more than one thread the helper threads run the same iterative deepening (Lazy SMP)
+     * on their own copy of the state, sharing only the transposition table.
+     */
+
+    /**
+     * Score of a won game, decreased by the number of moves it takes to win
+     */
+    public static final int WIN = 30000;
+
+    /**
+     * Scores beyond this bound are won or lost games
+     */
+    public static final int WIN_BOUND = WIN - 1000;
+
+    /**
+     * Maximum search depth, the transposition table stores depths in 8 bits
+     * The search never goes deeper than the longest game of the board either
+     */
+    public static final int MAX_DEPTH = 250;
+
+    /**
+     * Score of a game won according to the tablebase, below every score of a game won within the search
+     * It stays above <code>WIN_BOUND</code> at every ply the search can reach
+     */
+    public static final int TABLEBASE_WIN = WIN_BOUND + MAX_DEPTH + 1;
+
+    /**
+     * Number of nodes searched by a thread between two readings of the clock
+     */
+    public static final int TIME_CHECK_INTERVAL = 1024;
+
+    private static final int INFINITY = WIN + 1;
+    private static final int TABLE_MOVE_ORDER = 1 << 30;
+    private static final int CAPTURE_ORDER = 1 << 29;
+
+    /**
+     * Weights of the evaluation: piece count, number of reachable cells and remaining forward moves
+     */
+    private static final int MATERIAL_WEIGHT = 100;
+    private static final int MOBILITY_WEIGHT = 10;
+    private static final int RESERVE_WEIGHT = 5;
+
+    private final TranspositionTable table;
+    private long timeBudgetMillis;
+    private int maxDepth = MAX_DEPTH;
+    private int threads = 1;
+    private ExecutorService helperPool;
+    private Tablebase tablebase;
+    private OpeningBook openingBook;
+    private volatile SearchListener listener;
+
+    private volatile AtomicBoolean stopped = new AtomicBoolean();
+    private long deadline;
+    private LongSupplier clock = System::nanoTime;
+
+    /**
+     * Constructor of AlphaBetaEngine with a 16 MB transposition table
+     */
+    public AlphaBetaEngine(long timeBudgetMillis) {
+        this(timeBudgetMillis, new TranspositionTable(16));
+    }
+
+    /**
+     * Constructor of AlphaBetaEngine
+     */
+    public AlphaBetaEngine(long timeBudgetMillis, TranspositionTable table) {
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.table = table;
+    }
+
+    /**
+     * Returns the time budget of a move in milliseconds
+     */
+    public long getTimeBudgetMillis() {
+        return timeBudgetMillis;
+    }
+
+    /**
+     * Sets the time budget of a move in milliseconds
+     */
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * Sets the clock the time budget is measured with, in nanoseconds, <code>System.nanoTime</code> by default
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the maximum search depth
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = Math.min(maxDepth, MAX_DEPTH);
+    }
+
+    /**
+     * Sets the endgame tablebase probed during the search, or null
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Sets the opening book answering the positions it contains without a search, or null
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Sets the listener notified after every completed iteration, or null
+     */
+    public void setSearchListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Returns the number of search threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of search threads, the calling thread is one of them
+     */
+    public synchronized void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException();
+        }
+        if (helperPool != null) {
+            helperPool.shutdownNow();
+            helperPool = null;
+        }
+        this.threads = threads;
+        if (threads > 1) {
+            helperPool = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                var thread = new Thread(runnable, "search-helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Stops the running search, it returns the result of the last completed iteration
+     * A search that has not started yet is not affected, it can be stopped by the flag passed to it
+     */
+    public void stop() {
+        stopped.set(true);
+    }
+
+    @Override
+    public int selectMove(GameState state) {
+        return search(state).move();
+    }
+
+    /**
+     * Searches the best move of the player who moves next in <code>state</code>
+     * Returns <code>Move.NONE</code> as move if that player can not move
+     */
+    public SearchResult search(GameState state) {
+        return search(state, new AtomicBoolean());
+    }
+
+    /**
+     * Searches the best move of the player who moves next in <code>state</code> until <code>stopped</code> is set
+     * The flag belongs to this search, so it can be set before the search starts,
+     * the search then returns the first valid move without searching
+     */
+    public synchronized SearchResult search(GameState state, AtomicBoolean stopped) {
+        long start = clock.getAsLong();
+        deadline = start + timeBudgetMillis * 1_000_000;
+        this.stopped = stopped;
+        table.newSearch();
+
+        int[] moves = new int[state.getSpec().getMaxMoves()];
+        int count = state.generateMoves(moves);
+        var result = new SearchResult(count == 0 ? Move.NONE : moves[0], 0, 0, 0, 0);
+        if (count <= 1) {
+            return result;
+        }
+        if (openingBook != null) {
+            int move = openingBook.probe(state);
+            if (move != Move.NONE) {
+                Logger.debug("Book move {}", Move.toString(state.getNextPlayer(), move));
+                return new SearchResult(move, 0, 0, 0, (clock.getAsLong() - start) / 1_000_000);
+            }
+        }
+        int maxDepth = Math.min(this.maxDepth, state.getSpec().getMaxPlies());
+        var searcher = new Searcher(state.copy(), stopped);
+        var helpers = new Searcher[threads - 1];
+        var futures = new Future<?>[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            var helper = new Searcher(state.copy(), stopped);
+            int firstDepth = 1 + i % 2;
+            helpers[i] = helper;
+            futures[i] = helperPool.submit(() -> {
+                for (int depth = firstDepth; depth <= maxDepth && !stopped.get(); depth++) {
+                    helper.negamax(depth, -INFINITY, INFINITY, 0);
+                }
+            });
+        }
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int score = searcher.negamax(depth, -INFINITY, INFINITY, 0);
+            if (stopped.get()) {
+                break;
+            }
+            long elapsed = (clock.getAsLong() - start) / 1_000_000;
+            result = new SearchResult(searcher.bestMove, score, depth, searcher.nodes, elapsed);
+            Logger.debug("Depth {} score {} move {} nodes {}", depth, score,
+                    Move.toString(state.getNextPlayer(), searcher.bestMove), searcher.nodes);
+            var listener = this.listener;
+            if (listener != null) {
+                // The helpers are still running, their node counts are read without synchronization
+                long nodes = searcher.nodes;
+                for (var helper : helpers) {
+                    nodes += helper.nodes;
+                }
+                listener.iterationCompleted(new SearchResult(result.move(), score, depth, nodes, elapsed));
+            }
+            if (Math.abs(score) >= WIN_BOUND) {
+                break;
+            }
+        }
+        stopped.set(true);
+        long nodes = searcher.nodes;
+        for (int i = 0; i < helpers.length; i++) {
+            try {
+                futures[i].get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Logger.error(e.getCause(), "Search helper failed");
+            }
+            nodes += helpers[i].nodes;
+        }
+        long elapsed = (clock.getAsLong() - start) / 1_000_000;
+        return new SearchResult(result.move(), result.score(), result.depth(), nodes, elapsed);
+    }
+
+    /**
+     * Returns the static evaluation of <code>state</code> from the view of the player who moves next
+     */
+    public static int evaluate(GameState state) {
+        var spec = state.getSpec();
+        int material = state.getRedCount() - state.getBlueCount();
+        int mobility = state.getRedMobility() - state.getBlueMobility();
+        int reserve = 0;
+        for (int i = 0; i < state.getRedCount(); i++) {
+            reserve += spec.getHeight() - 1 - spec.rowOf(state.getRedCell(i));
+        }
+        for (int i = 0; i < state.getBlueCount(); i++) {
+            reserve -= spec.rowOf(state.getBlueCell(i));
+        }
+        int score = MATERIAL_WEIGHT * material + MOBILITY_WEIGHT * mobility + RESERVE_WEIGHT * reserve;
+        return state.getNextPlayer() == PieceType.RED ? score : -score;
+    }
+
+    /**
+     * Converts a win score to be relative to the node it is stored at
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_BOUND) {
+            return score + ply;
+        }
+        if (score <= -WIN_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    /**
+     * Converts a stored win score to be relative to the root
+     */
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_BOUND) {
+            return score - ply;
+        }
+        if (score <= -WIN_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Search of a single thread, working on its own copy of the state
+     */
+    private class Searcher {
+        private final GameState state;
+        private final AtomicBoolean stopped;
+        private final BoardState tablebaseState;
+        private final int[][] moves;
+        private final int[][] orders;
+        private final int[][] history = new int[2][Move.COUNT];
+        private long nodes;
+        private int bestMove = Move.NONE;
+
+        Searcher(GameState state, AtomicBoolean stopped) {
+            this.state = state;
+            this.stopped = stopped;
+            this.tablebaseState = tablebase != null && state instanceof BoardState boardState ? boardState : null;
+            this.moves = new int[state.getSpec().getMaxPlies() + 1][state.getSpec().getMaxMoves()];
+            this.orders = new int[state.getSpec().getMaxPlies() + 1][state.getSpec().getMaxMoves()];
+        }
+
+        int negamax(int depth, int alpha, int beta, int ply) {
+            nodes++;
+            if ((nodes & (TIME_CHECK_INTERVAL - 1)) == 0 && clock.getAsLong() - deadline >= 0) {
+                stopped.set(true);
+            }
+            if (stopped.get()) {
+                return 0;
+            }
+            PieceType winner = state.getWinner();
+            if (winner != null) {
+                return winner == state.getNextPlayer() ? WIN - ply : ply - WIN;
+            }
+            if (tablebaseState != null && ply > 0) {
+                int result = tablebase.probe(tablebaseState);
+                if (result != Tablebase.UNKNOWN) {
+                    return result == Tablebase.WON ? TABLEBASE_WIN - ply : ply - TABLEBASE_WIN;
+                }
+            }
+            if (depth == 0) {
+                return evaluate(state);
+            }
+
+            long key = state.getHash();
+            long entry = table.probe(key);
+            int tableMove = Move.NONE;
+            if (entry != TranspositionTable.MISS) {
+                tableMove = TranspositionTable.move(entry);
+                if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                    int score = fromTable(TranspositionTable.score(entry), ply);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || bound == TranspositionTable.LOWER && score >= beta
+                            || bound == TranspositionTable.UPPER && score <= alpha) {
+                        return score;
+                    }
+                }
+            }
+
+            int side = state.getNextPlayer().ordinal();
+            int[] list = moves[ply];
+            int[] order = orders[ply];
+            int count = state.generateMoves(list);
+            for (int i = 0; i < count; i++) {
+                int move = list[i];
+                order[i] = move == tableMove ? TABLE_MOVE_ORDER
+                        : state.isCapture(move) ? CAPTURE_ORDER : history[side][move];
+            }
+
+            int originalAlpha = alpha;
+            int best = -INFINITY;
+            int bestMoveHere = Move.NONE;
+            for (int i = 0; i < count; i++) {
+                pickNext(list, order, i, count);
+                int move = list[i];
+                state.makeMove(move);
+                int score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+                state.unmakeMove();
+                if (stopped.get()) {
+                    return 0;
+                }
+                if (score > best) {
+                    best = score;
+                    bestMoveHere = move;
+                    if (ply == 0) {
+                        bestMove = move;
+                    }
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+                if (alpha >= beta) {
+                    if (!state.isCapture(move)) {
+                        history[side][move] += depth * depth;
+                    }
+                    break;
+                }
+            }
+
+            int bound = best <= originalAlpha ? TranspositionTable.UPPER
+                    : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(key, depth, bound, toTable(best, ply), bestMoveHere);
+            return best;
+        }
+
+        /**
+         * Moves the move with the highest order among the remaining ones to index <code>from</code>
+         */
+        private void pickNext(int[] list, int[] order, int from, int count) {
+            int bestIndex = from;
+            for (int i = from + 1; i < count; i++) {
+                if (order[i] > order[bestIndex]) {
+                    bestIndex = i;
+                }
+            }
+            if (bestIndex != from) {
+                int move = list[from];
+                list[from] = list[bestIndex];
+                list[bestIndex] = move;
+                int value = order[from];
+                order[from] = order[bestIndex];
+                order[bestIndex] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package boardgame.engine;
+
+public record BookMove(int move, int weight, int games, int wins) {
+    /**
+     * Record class
+     * A move of the opening book: its weight, the number of archived games it was played in
+     * and the number of those won by the player who made it
+     */
+
+    /**
+     * Checks if the engine selected the move, its weight is more than the games it was played in
+     */
+    public boolean isAnalysed() {
+        return weight > games;
+    }
+
+    /**
+     * Returns the share of the games won by the player who made the move, or 0 if it was not played
+     */
+    public double winRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+}
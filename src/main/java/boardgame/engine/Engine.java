@@ -0,0 +1,15 @@
+package boardgame.engine;
+
+import boardgame.model.GameState;
+
+public interface Engine {
+    /**
+     * Interface of computer players
+     */
+
+    /**
+     * Returns the move (see <code>Move</code>) chosen for the player who moves next in <code>state</code>,
+     * <code>state</code> is the same when the method returns
+     */
+    int selectMove(GameState state);
+}
@@ -0,0 +1,365 @@
+package boardgame.engine;
+
+import boardgame.model.BoardSpec;
+import boardgame.model.GameState;
+import boardgame.model.Move;
+import boardgame.model.PieceType;
+import org.tinylog.Logger;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+public class MctsEngine implements Engine {
+    /**
+     * Computer player using Monte Carlo tree search with UCT selection and random playouts
+     * The nodes of a tree are kept in flat arrays indexed by node number, the children of a node
+     * are stored next to each other. A leaf is expanded when it is visited the second time,
+     * when the pool is full the tree stops growing and the playouts continue from its leaves.
+     * With more than one thread every thread grows its own tree from the same root (root parallelization),
+     * the visit counts of the root moves are summed at the end. The trees share nothing,
+     * so no locking or virtual loss is needed.
+     * The node arrays of a thread are allocated once and reused by every search, a search only resets the root.
+     */
+
+    /**
+     * Default exploration constant of UCT
+     */
+    public static final double DEFAULT_EXPLORATION = Math.sqrt(2);
+
+    /**
+     * Default number of nodes of a tree
+     */
+    public static final int DEFAULT_NODE_CAPACITY = 1 << 20;
+
+    /**
+     * Number of playouts of a thread between two readings of the clock
+     */
+    public static final int TIME_CHECK_INTERVAL = 256;
+
+
+    private final int nodeCapacity;
+    private final SplittableRandom random;
+    private long timeBudgetMillis;
+    private long playoutBudget;
+    private double exploration = DEFAULT_EXPLORATION;
+    private int threads = 1;
+    private ExecutorService workerPool;
+    private Tree[] trees;
+
+    private volatile AtomicBoolean stopped = new AtomicBoolean();
+    private long deadline;
+    private LongSupplier clock = System::nanoTime;
+
+    /**
+     * Constructor of MctsEngine with trees of <code>DEFAULT_NODE_CAPACITY</code> nodes
+     */
+    public MctsEngine(long timeBudgetMillis, long seed) {
+        this(timeBudgetMillis, seed, DEFAULT_NODE_CAPACITY);
+    }
+
+    /**
+     * Constructor of MctsEngine
+     */
+    public MctsEngine(long timeBudgetMillis, long seed, int nodeCapacity) {
+        if (nodeCapacity <= BoardSpec.MAX_PIECES * BoardSpec.DIRECTIONS) {
+            throw new IllegalArgumentException();
+        }
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.random = new SplittableRandom(seed);
+        this.nodeCapacity = nodeCapacity;
+        this.trees = new Tree[]{new Tree()};
+    }
+
+    /**
+     * Sets the time budget of a move in milliseconds
+     */
+    public void setTimeBudgetMillis(long timeBudgetMillis) {
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * Sets the clock the time budget is measured with, in nanoseconds, <code>System.nanoTime</code> by default
+     */
+    public void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Sets the number of playouts of a move summed over the threads, 0 if only the time budget limits the search
+     */
+    public void setPlayoutBudget(long playoutBudget) {
+        if (playoutBudget < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.playoutBudget = playoutBudget;
+    }
+
+    /**
+     * Sets the exploration constant of UCT
+     */
+    public void setExploration(double exploration) {
+        this.exploration = exploration;
+    }
+
+    /**
+     * Returns the number of search threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Sets the number of search threads, the calling thread is one of them
+     */
+    public synchronized void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException();
+        }
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+            workerPool = null;
+        }
+        this.threads = threads;
+        var oldTrees = trees;
+        trees = new Tree[threads];
+        for (int i = 0; i < threads; i++) {
+            trees[i] = i < oldTrees.length ? oldTrees[i] : new Tree();
+        }
+        if (threads > 1) {
+            workerPool = Executors.newFixedThreadPool(threads - 1, runnable -> {
+                var thread = new Thread(runnable, "mcts-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Stops the running search, it returns the most visited move so far
+     * A search that has not started yet is not affected, it can be stopped by the flag passed to it
+     */
+    public void stop() {
+        stopped.set(true);
+    }
+
+    @Override
+    public int selectMove(GameState state) {
+        return search(state).move();
+    }
+
+    /**
+     * Searches the best move of the player who moves next in <code>state</code>
+     * Returns <code>Move.NONE</code> as move if that player can not move
+     */
+    public PlayoutResult search(GameState state) {
+        return search(state, new AtomicBoolean());
+    }
+
+    /**
+     * Searches the best move of the player who moves next in <code>state</code> until <code>stopped</code> is set
+     * The flag belongs to this search, so it can be set before the search starts
+     */
+    public synchronized PlayoutResult search(GameState state, AtomicBoolean stopped) {
+        long start = clock.getAsLong();
+        deadline = start + timeBudgetMillis * 1_000_000;
+        this.stopped = stopped;
+
+        int[] moves = new int[state.getSpec().getMaxMoves()];
+        int count = state.generateMoves(moves);
+        if (count <= 1) {
+            return new PlayoutResult(count == 0 ? Move.NONE : moves[0], 0, 0, 0);
+        }
+        long treeBudget = playoutBudget == 0 ? Long.MAX_VALUE : (playoutBudget + threads - 1) / threads;
+        for (var tree : trees) {
+            tree.reset(state.copy(), random.split(), stopped);
+        }
+        var futures = new Future<?>[threads - 1];
+        for (int i = 0; i < futures.length; i++) {
+            var tree = trees[i + 1];
+            futures[i] = workerPool.submit(() -> tree.run(treeBudget));
+        }
+        trees[0].run(treeBudget);
+        for (var future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Logger.error(e.getCause(), "MCTS worker failed");
+            }
+        }
+
+        long playouts = 0;
+        long[] visits = new long[count];
+        long[] wins = new long[count];
+        for (var tree : trees) {
+            playouts += tree.playouts;
+            for (int i = 0; i < count; i++) {
+                visits[i] += tree.visits[tree.firstChild[0] + i];
+                wins[i] += tree.wins[tree.firstChild[0] + i];
+            }
+        }
+        int best = 0;
+        for (int i = 1; i < count; i++) {
+            if (visits[i] > visits[best]) {
+                best = i;
+            }
+        }
+        long elapsed = (clock.getAsLong() - start) / 1_000_000;
+        var result = new PlayoutResult(moves[best], (double) wins[best] / Math.max(visits[best], 1), playouts, elapsed);
+        Logger.debug("Move {} win rate {} playouts {} ({} per second)",
+                Move.toString(state.getNextPlayer(), result.move()), result.winRate(), playouts, result.playoutsPerSecond());
+        return result;
+    }
+
+    /**
+     * Search tree of a single thread, working on its own copy of the state
+     * <code>wins[node]</code> counts the playouts won by the player who made the move leading to the node
+     * A node is cleared when it is added, so the arrays are not cleared between searches.
+     */
+    private class Tree {
+        private final int[] firstChild = new int[nodeCapacity];
+        private final byte[] childCount = new byte[nodeCapacity];
+        private final byte[] move = new byte[nodeCapacity];
+        private final int[] visits = new int[nodeCapacity];
+        private final int[] wins = new int[nodeCapacity];
+        private int[] path = new int[0];
+        private int[] moves = new int[0];
+        private GameState state;
+        private SplittableRandom random;
+        private AtomicBoolean stopped;
+        private int rootPly;
+        private boolean rootRedNext;
+        private int size;
+        private long playouts;
+
+        /**
+         * Starts a new search of <code>state</code>, the tree is only its root
+         */
+        void reset(GameState state, SplittableRandom random, AtomicBoolean stopped) {
+            this.state = state;
+            this.random = random;
+            this.stopped = stopped;
+            if (path.length <= state.getSpec().getMaxPlies()) {
+                path = new int[state.getSpec().getMaxPlies() + 1];
+            }
+            if (moves.length < state.getSpec().getMaxMoves()) {
+                moves = new int[state.getSpec().getMaxMoves()];
+            }
+            rootPly = state.getPly();
+            rootRedNext = state.getNextPlayer() == PieceType.RED;
+            playouts = 0;
+            size = 1;
+            childCount[0] = 0;
+            visits[0] = 0;
+            wins[0] = 0;
+            expand(0);
+        }
+
+        void run(long budget) {
+            while (playouts < budget && !stopped.get()) {
+                playout();
+                if (++playouts % TIME_CHECK_INTERVAL == 0 && clock.getAsLong() - deadline >= 0) {
+                    stopped.set(true);
+                }
+            }
+        }
+
+        /**
+         * Selects a leaf, expands it, plays a random game from it and updates the statistics of the path
+         */
+        private void playout() {
+            int node = 0;
+            int length = 0;
+            path[length++] = node;
+            while (childCount[node] != 0) {
+                node = select(node);
+                state.makeMove(move[node] & 0xFF);
+                path[length++] = node;
+            }
+            var winner = state.getWinner();
+            if (winner == null && visits[node] > 0 && expand(node)) {
+                node = firstChild[node] + random.nextInt(childCount[node] & 0xFF);
+                state.makeMove(move[node] & 0xFF);
+                path[length++] = node;
+            }
+            while (winner == null && (winner = state.getWinner()) == null) {
+                state.makeMove(moves[random.nextInt(state.generateMoves(moves))]);
+            }
+            while (state.getPly() > rootPly) {
+                state.unmakeMove();
+            }
+
+            // Players alternate, the nodes at odd depths are reached by a move of the player at the root
+            boolean rootWins = (winner == PieceType.RED) == rootRedNext;
+            for (int i = 0; i < length; i++) {
+                visits[path[i]]++;
+                if (i % 2 == 1 == rootWins) {
+                    wins[path[i]]++;
+                }
+            }
+        }
+
+        /**
+         * Returns the child of <code>node</code> with the highest upper confidence bound,
+         * or its first unvisited child
+         */
+        private int select(int node) {
+            double logVisits = Math.log(visits[node]);
+            int best = -1;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = firstChild[node], end = child + (childCount[node] & 0xFF); child < end; child++) {
+                if (visits[child] == 0) {
+                    return child;
+                }
+                double value = (double) wins[child] / visits[child] + exploration * Math.sqrt(logVisits / visits[child]);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Adds the children of <code>node</code>, returns false if the pool is full
+         */
+        private boolean expand(int node) {
+            int count = state.generateMoves(moves);
+            if (count == 0 || size + count > nodeCapacity) {
+                return false;
+            }
+            firstChild[node] = size;
+            for (int i = 0; i < count; i++) {
+                move[size] = (byte) moves[i];
+                childCount[size] = 0;
+                visits[size] = 0;
+                wins[size] = 0;
+                size++;
+            }
+            childCount[node] = (byte) count;
+            return true;
+        }
+    }
+
+    /**
+     * Searches the starting position and prints the number of playouts per second
+     * Arguments: time budget in ms, thread count
+     */
+    public static void main(String[] args) {
+        long time = args.length > 0 ? Long.parseLong(args[0]) : 5000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        var engine = new MctsEngine(time, System.nanoTime());
+        engine.setThreads(threads);
+        var result = engine.search(GameState.of(BoardSpec.STANDARD));
+        System.out.printf("%s win rate %.3f, %d playouts in %d ms, %d playouts/s on %d threads%n",
+                Move.toString(PieceType.BLUE, result.move()), result.winRate(), result.playouts(),
+                result.elapsedMillis(), result.playoutsPerSecond(), threads);
+        engine.setThreads(1);
+    }
+}
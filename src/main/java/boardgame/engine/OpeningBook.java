@@ -0,0 +1,205 @@
+package boardgame.engine;
+
+import boardgame.model.BoardSpec;
+import boardgame.model.GameState;
+import boardgame.model.Position;
+import boardgame.model.Move;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class OpeningBook {
+    /**
+     * Memory-mapped opening book, written by <code>OpeningBookBuilder</code>
+     * The file has a header (magic number, version, entry count, the board variant: height, width,
+     * black tile and piece counts, then the cells of the black tiles, Player2 and Player1 pieces)
+     * followed by the entries sorted by position hash, then by move. An entry is the hash, the move, its weight, the number of games it was
+     * played in and the number of those won by the player who made it.
+     * A lookup is a binary search in the mapped file, nothing is loaded on the heap.
+     * The moves of an entry are checked against the valid moves of the state, so a hash collision
+     * never leads to an invalid move. Every variant has the same Zobrist keys, so only the states of
+     * the variant of the book are looked up.
+     * <code>probe</code> only trusts a move the engine selected, or one played in enough games with a good result,
+     * every move is listed by <code>getMoves</code>.
+     */
+
+    /**
+     * Default number of games a move not selected by the engine must have been played in to be trusted
+     */
+    public static final int DEFAULT_MIN_GAMES = 10;
+
+    /**
+     * Default share of its games a move not selected by the engine must have won to be trusted
+     */
+    public static final double DEFAULT_MIN_WIN_RATE = 0.5;
+
+    static final int MAGIC = 0x424f4f4b;
+    static final int VERSION = 2;
+    static final int ENTRY_SIZE = 24;
+
+    private static final Comparator<BookMove> BEST_FIRST = Comparator.comparingInt(BookMove::weight)
+            .thenComparingDouble(BookMove::winRate)
+            .reversed();
+
+    private final MappedByteBuffer buffer;
+    private final int entryCount;
+    private final BoardSpec spec;
+    private final int entriesOffset;
+    private int minGames = DEFAULT_MIN_GAMES;
+    private double minWinRate = DEFAULT_MIN_WIN_RATE;
+
+    private OpeningBook(MappedByteBuffer buffer) {
+        if (buffer.limit() < 36 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not an opening book");
+        }
+        int width = buffer.getInt(20);
+        if (width < 1) {
+            throw new IllegalArgumentException("Not an opening book");
+        }
+        int[] counts = {buffer.getInt(24), buffer.getInt(28), buffer.getInt(32)};
+        long offset = 36;
+        List<List<Position>> positions = new ArrayList<>();
+        for (int count : counts) {
+            if (count < 0 || offset + (long) count * Integer.BYTES > buffer.limit()) {
+                throw new IllegalArgumentException("Not an opening book");
+            }
+            List<Position> list = new ArrayList<>(count);
+            for (int i = 0; i < count; i++, offset += Integer.BYTES) {
+                int cell = buffer.getInt((int) offset);
+                list.add(new Position(cell / width, cell % width));
+            }
+            positions.add(list);
+        }
+        if (buffer.getLong(8) != (buffer.limit() - offset) / ENTRY_SIZE) {
+            throw new IllegalArgumentException("Not an opening book");
+        }
+        this.buffer = buffer;
+        this.entryCount = (int) buffer.getLong(8);
+        this.spec = new BoardSpec(buffer.getInt(16), width, positions.get(0), positions.get(1), positions.get(2));
+        this.entriesOffset = (int) offset;
+    }
+
+    /**
+     * Returns the size of the header of a book of <code>spec</code>
+     */
+    static int headerSize(BoardSpec spec) {
+        return 36 + Integer.BYTES * (spec.getBlackCells().length + spec.getRedStart().length + spec.getBlueStart().length);
+    }
+
+    /**
+     * Opens the book at <code>path</code> for lookups
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns the board variant of the book
+     */
+    public BoardSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * Sets the number of games and the share of them won that make <code>probe</code> trust a move
+     * the engine did not select
+     */
+    public void setTrust(int minGames, double minWinRate) {
+        this.minGames = minGames;
+        this.minWinRate = minWinRate;
+    }
+
+    /**
+     * Checks if <code>probe</code> may return <code>move</code>
+     */
+    public boolean isTrusted(BookMove move) {
+        return move.isAnalysed() || move.games() >= minGames && move.winRate() >= minWinRate;
+    }
+
+    /**
+     * Returns the number of entries, one for each move of each position
+     */
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    private long hashAt(int index) {
+        return buffer.getLong(entriesOffset + index * ENTRY_SIZE);
+    }
+
+    /**
+     * Returns the index of the first entry of <code>hash</code>, or of the first entry after it if there is none
+     */
+    private int firstEntry(long hash) {
+        int low = 0;
+        int high = entryCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (hashAt(middle) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the book moves of the player who moves next in <code>state</code>, the best one first
+     * Only the valid moves of the state are returned, the list is empty if the position is not in the book
+     * or the state is of another variant
+     */
+    public List<BookMove> getMoves(GameState state) {
+        List<BookMove> result = new ArrayList<>();
+        if (!spec.equals(state.getSpec())) {
+            return result;
+        }
+        long hash = state.getHash();
+        int[] moves = null;
+        int count = 0;
+        for (int index = firstEntry(hash); index < entryCount && hashAt(index) == hash; index++) {
+            if (moves == null) {
+                moves = new int[state.getSpec().getMaxMoves()];
+                count = state.generateMoves(moves);
+            }
+            int offset = entriesOffset + index * ENTRY_SIZE + Long.BYTES;
+            int move = buffer.getInt(offset);
+            if (contains(moves, count, move)) {
+                result.add(new BookMove(move, buffer.getInt(offset + 4), buffer.getInt(offset + 8),
+                        buffer.getInt(offset + 12)));
+            }
+        }
+        result.sort(BEST_FIRST);
+        return result;
+    }
+
+    private static boolean contains(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the best trusted book move of the player who moves next in <code>state</code>,
+     * or <code>Move.NONE</code> if the book has none, so the position has to be searched
+     */
+    public int probe(GameState state) {
+        for (var move : getMoves(state)) {
+            if (isTrusted(move)) {
+                return move.move();
+            }
+        }
+        return Move.NONE;
+    }
+}
@@ -0,0 +1,177 @@
+package boardgame.engine;
+
+import boardgame.model.BoardSpec;
+import boardgame.model.GameArchive;
+import boardgame.model.GameState;
+import boardgame.model.Move;
+import org.tinylog.Logger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static boardgame.engine.OpeningBook.*;
+
+public class OpeningBookBuilder {
+    /**
+     * Collects the moves of the first plies of a board variant, then writes them as an <code>OpeningBook</code>
+     * A move played in an archived game adds 1 to its weight, a move chosen by the engine adds
+     * <code>ANALYSIS_WEIGHT</code>, so the analysis outweighs a few games but not a well-tried line.
+     */
+
+    /**
+     * Weight added to the move the engine selects in a position
+     */
+    public static final int ANALYSIS_WEIGHT = 10;
+
+    private record Key(long hash, int move) {
+    }
+
+    private final BoardSpec spec;
+    private final int maxPlies;
+    private final Map<Key, int[]> entries = new HashMap<>();
+
+    /**
+     * Constructor of OpeningBookBuilder, the book covers the first <code>maxPlies</code> plies of games on <code>spec</code>
+     */
+    public OpeningBookBuilder(BoardSpec spec, int maxPlies) {
+        this.spec = spec;
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Returns the number of entries collected so far
+     */
+    public int getEntryCount() {
+        return entries.size();
+    }
+
+    private void add(long hash, int move, int weight, int games, int wins) {
+        int[] entry = entries.computeIfAbsent(new Key(hash, move), key -> new int[3]);
+        entry[0] += weight;
+        entry[1] += games;
+        entry[2] += wins;
+    }
+
+    /**
+     * Adds the first plies of every game of <code>archive</code> played on the spec of the book,
+     * returns the number of games added
+     */
+    public int addGames(GameArchive archive) {
+        int games = 0;
+        var cursor = archive.cursor();
+        while (cursor.next()) {
+            if (!spec.equals(cursor.getSpec())) {
+                continue;
+            }
+            var state = cursor.replay(GameState.of(spec));
+            var winner = state.getWinner();
+            int plies = Math.min(maxPlies, cursor.getMoveCount());
+            while (state.getPly() > plies) {
+                state.unmakeMove();
+            }
+            for (int ply = plies - 1; ply >= 0; ply--) {
+                state.unmakeMove();
+                add(state.getHash(), cursor.getMove(ply), 1, 1, state.getNextPlayer() == winner ? 1 : 0);
+            }
+            games++;
+        }
+        return games;
+    }
+
+    /**
+     * Searches every position of the first <code>plies</code> plies from the start of the spec with <code>engine</code>,
+     * adding the move it selects. The number of positions grows exponentially with <code>plies</code>
+     */
+    public void addAnalysis(AlphaBetaEngine engine, int plies) {
+        analyse(engine, GameState.of(spec), Math.min(plies, maxPlies), new HashSet<>());
+    }
+
+    private void analyse(AlphaBetaEngine engine, GameState state, int plies, Set<Long> visited) {
+        if (state.getPly() >= plies || state.isGameOver() || !visited.add(state.getHash())) {
+            return;
+        }
+        int selected = engine.search(state).move();
+        if (selected != Move.NONE) {
+            add(state.getHash(), selected, ANALYSIS_WEIGHT, 0, 0);
+        }
+        int[] moves = new int[spec.getMaxMoves()];
+        int count = state.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            state.makeMove(moves[i]);
+            analyse(engine, state, plies, visited);
+            state.unmakeMove();
+        }
+    }
+
+    /**
+     * Writes the book to <code>path</code>, replacing the file if it exists
+     */
+    public void write(Path path) throws IOException {
+        List<Map.Entry<Key, int[]>> sorted = new ArrayList<>(entries.entrySet());
+        sorted.sort(Comparator.comparing((Map.Entry<Key, int[]> entry) -> entry.getKey().hash())
+                .thenComparingInt(entry -> entry.getKey().move()));
+        long size = headerSize(spec) + (long) sorted.size() * ENTRY_SIZE;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many entries: " + sorted.size());
+        }
+        Files.deleteIfExists(path);
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(MAGIC).putInt(VERSION).putLong(sorted.size());
+            int[] blackCells = spec.getBlackCells();
+            int[] redStart = spec.getRedStart();
+            int[] blueStart = spec.getBlueStart();
+            buffer.putInt(spec.getHeight()).putInt(spec.getWidth())
+                    .putInt(blackCells.length).putInt(redStart.length).putInt(blueStart.length);
+            for (int[] cells : new int[][]{blackCells, redStart, blueStart}) {
+                for (int cell : cells) {
+                    buffer.putInt(cell);
+                }
+            }
+            for (var entry : sorted) {
+                int[] values = entry.getValue();
+                buffer.putLong(entry.getKey().hash())
+                        .putInt(entry.getKey().move())
+                        .putInt(values[0])
+                        .putInt(values[1])
+                        .putInt(values[2]);
+            }
+            buffer.force();
+        }
+    }
+
+    /**
+     * Builds the opening book of the standard board
+     * Arguments: game archive path, book path, plies of the book, plies analysed by the engine, search time per position
+     */
+    public static void main(String[] args) throws IOException {
+        Path archivePath = Path.of(args.length > 0 ? args[0] : "games.bin");
+        Path bookPath = Path.of(args.length > 1 ? args[1] : "book.bin");
+        int plies = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int analysedPlies = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        long millis = args.length > 4 ? Long.parseLong(args[4]) : 200;
+        long start = System.nanoTime();
+        var builder = new OpeningBookBuilder(BoardSpec.STANDARD, plies);
+        if (Files.exists(archivePath)) {
+            Logger.info("Added {} games of {}", builder.addGames(GameArchive.open(archivePath)), archivePath);
+        }
+        var engine = new AlphaBetaEngine(millis);
+        engine.setThreads(Runtime.getRuntime().availableProcessors());
+        builder.addAnalysis(engine, analysedPlies);
+        engine.setThreads(1);
+        builder.write(bookPath);
+        System.out.printf("Wrote %d entries to %s in %.1f s%n", builder.getEntryCount(), bookPath,
+                (System.nanoTime() - start) / 1e9);
+    }
+}
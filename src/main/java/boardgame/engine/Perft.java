@@ -0,0 +1,147 @@
+package boardgame.engine;
+
+import boardgame.model.BoardGameModel;
+import boardgame.model.GameState;
+import boardgame.model.Move;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public final class Perft {
+    /**
+     * Counts the move paths (leaf nodes) reachable from a position to a given depth
+     * A finished game is not expanded, so it counts only if it is reached at the given depth
+     */
+
+    private Perft() {
+    }
+
+    /**
+     * Returns the number of leaf nodes reachable from <code>state</code> in <code>depth</code> moves
+     */
+    public static long perft(GameState state, int depth) {
+        return perft(state, depth, new int[depth + 1][state.getSpec().getMaxMoves()]);
+    }
+
+    private static long perft(GameState state, int depth, int[][] moveBuffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (state.isGameOver()) {
+            return 0;
+        }
+        int[] moves = moveBuffers[depth];
+        int count = state.generateMoves(moves);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            state.makeMove(moves[i]);
+            nodes += perft(state, depth - 1, moveBuffers);
+            state.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Returns the number of leaf nodes below each move of <code>state</code>, in move generation order
+     */
+    public static Map<Integer, Long> divide(GameState state, int depth) {
+        var result = new LinkedHashMap<Integer, Long>();
+        if (depth == 0 || state.isGameOver()) {
+            return result;
+        }
+        int[] moves = new int[state.getSpec().getMaxMoves()];
+        int count = state.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            state.makeMove(moves[i]);
+            result.put(moves[i], perft(state, depth - 1));
+            state.unmakeMove();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of leaf nodes reachable from <code>state</code> in <code>depth</code> moves,
+     * counting the subtrees in parallel on <code>pool</code>
+     */
+    public static long parallelPerft(GameState state, int depth, ForkJoinPool pool) {
+        return pool.invoke(new PerftTask(state.copy(), depth));
+    }
+
+    /**
+     * Returns the number of leaf nodes reachable from <code>state</code> in <code>depth</code> moves,
+     * counting the subtrees in parallel on the common pool
+     */
+    public static long parallelPerft(GameState state, int depth) {
+        return parallelPerft(state, depth, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Task counting the subtree of its own copy of a state,
+     * it forks a task for each move until the remaining depth is small enough
+     */
+    private static class PerftTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+        private static final int SEQUENTIAL_DEPTH = 4;
+
+        private final GameState state;
+        private final int depth;
+
+        PerftTask(GameState state, int depth) {
+            this.state = state;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SEQUENTIAL_DEPTH || state.isGameOver()) {
+                return perft(state, depth);
+            }
+            int[] moves = new int[state.getSpec().getMaxMoves()];
+            int count = state.generateMoves(moves);
+            var tasks = new PerftTask[count];
+            for (int i = 0; i < count; i++) {
+                var child = state.copy();
+                child.makeMove(moves[i]);
+                tasks[i] = new PerftTask(child, depth - 1);
+                tasks[i].fork();
+            }
+            long nodes = 0;
+            for (var task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Runs perft from the starting position
+     * Arguments: depth, optionally "divide" or "parallel"
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        String mode = args.length > 1 ? args[1] : "";
+        GameState state = new BoardGameModel().getState();
+
+        long start = System.nanoTime();
+        long nodes;
+        switch (mode) {
+            case "divide" -> {
+                nodes = 0;
+                for (var entry : divide(state, depth).entrySet()) {
+                    System.out.printf("%s: %d%n", Move.toString(state.getNextPlayer(), entry.getKey()), entry.getValue());
+                    nodes += entry.getValue();
+                }
+            }
+            case "parallel" -> nodes = parallelPerft(state, depth);
+            default -> nodes = perft(state, depth);
+        }
+        long elapsed = Math.max(System.nanoTime() - start, 1);
+        System.out.printf("perft(%d) = %d in %.3f s, %.0f nodes/s%n",
+                depth, nodes, elapsed / 1e9, nodes * 1e9 / elapsed);
+    }
+}
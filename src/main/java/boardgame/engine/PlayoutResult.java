@@ -0,0 +1,16 @@
+package boardgame.engine;
+
+public record PlayoutResult(int move, double winRate, long playouts, long elapsedMillis) {
+    /**
+     * Record class
+     * Result of a Monte Carlo tree search: the most visited move, its rate of won playouts
+     * for the moving player, the number of playouts and the time spent
+     */
+
+    /**
+     * Returns the number of playouts per second
+     */
+    public long playoutsPerSecond() {
+        return playouts * 1000 / Math.max(elapsedMillis, 1);
+    }
+}
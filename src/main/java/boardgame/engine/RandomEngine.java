@@ -0,0 +1,31 @@
+package boardgame.engine;
+
+import boardgame.model.GameState;
+import boardgame.model.Move;
+
+import java.util.SplittableRandom;
+
+public class RandomEngine implements Engine {
+    /**
+     * Computer player choosing a uniformly random valid move
+     */
+
+    private final SplittableRandom random;
+    private int[] moves = new int[0];
+
+    /**
+     * Constructor of RandomEngine
+     */
+    public RandomEngine(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int selectMove(GameState state) {
+        if (moves.length < state.getSpec().getMaxMoves()) {
+            moves = new int[state.getSpec().getMaxMoves()];
+        }
+        int count = state.generateMoves(moves);
+        return count == 0 ? Move.NONE : moves[random.nextInt(count)];
+    }
+}
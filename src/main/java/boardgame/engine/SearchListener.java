@@ -0,0 +1,15 @@
+package boardgame.engine;
+
+@FunctionalInterface
+public interface SearchListener {
+    /**
+     * Listener notified by <code>AlphaBetaEngine</code> of the progress of a search
+     * It is called on the searching thread, a UI has to pass the result to its own thread
+     */
+
+    /**
+     * Called after every completed iteration with the best move so far,
+     * the time and node count of the result are measured from the start of the search
+     */
+    void iterationCompleted(SearchResult result);
+}
@@ -0,0 +1,16 @@
+package boardgame.engine;
+
+public record SearchResult(int move, int score, int depth, long nodes, long elapsedMillis) {
+    /**
+     * Record class
+     * Result of a (possibly partial) search: the best move, its score from the moving player's view,
+     * the completed depth, the number of visited nodes and the time spent
+     */
+
+    /**
+     * Returns the number of nodes visited per second
+     */
+    public long nodesPerSecond() {
+        return nodes * 1000 / Math.max(elapsedMillis, 1);
+    }
+}
@@ -0,0 +1,53 @@
+package boardgame.engine;
+
+import boardgame.model.BoardSpec;
+import boardgame.model.GameState;
+
+public final class SmpBenchmark {
+    /**
+     * Measures the speedup of the multi-threaded search:
+     * nodes per second and time to reach a fixed depth for 1, 2, 4, 8... threads
+     */
+
+    private SmpBenchmark() {
+    }
+
+    /**
+     * Returns the result of a fixed <code>depth</code> search of <code>state</code> on <code>threads</code> threads,
+     * with an empty transposition table of <code>megabytes</code> MB
+     */
+    public static SearchResult measure(GameState state, int depth, int threads, int megabytes) {
+        var engine = new AlphaBetaEngine(Long.MAX_VALUE / 1_000_000, new TranspositionTable(megabytes));
+        engine.setMaxDepth(depth);
+        engine.setThreads(threads);
+        try {
+            return engine.search(state);
+        } finally {
+            engine.setThreads(1);
+        }
+    }
+
+    /**
+     * Prints the speedup curve from the starting position
+     * Arguments: depth, maximum thread count (default: available processors), table size in MB
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int megabytes = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+        GameState state = GameState.of(BoardSpec.STANDARD);
+
+        measure(state, Math.max(depth - 2, 1), 1, megabytes);
+        System.out.printf("%8s %12s %14s %10s %10s%n", "threads", "time (ms)", "nodes/s", "speedup", "nps ratio");
+        SearchResult base = null;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            var result = measure(state, depth, threads, megabytes);
+            if (base == null) {
+                base = result;
+            }
+            System.out.printf("%8d %12d %14d %10.2f %10.2f%n", threads, result.elapsedMillis(), result.nodesPerSecond(),
+                    (double) Math.max(base.elapsedMillis(), 1) / Math.max(result.elapsedMillis(), 1),
+                    (double) result.nodesPerSecond() / Math.max(base.nodesPerSecond(), 1));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package boardgame.engine;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class SolutionDatabase {
+    /**
+     * Memory-mapped open addressing hash table of solved positions
+     * The file has a header (magic number, slot count) followed by the slots,
+     * every slot is a record of <code>SolutionWriter</code> or 0 if empty.
+     * A lookup reads a few slots of the mapped file, nothing is loaded on the heap.
+     */
+
+    private static final int MAGIC = 0x534f4c56;
+    private static final int HEADER_SIZE = 16;
+
+    private final MappedByteBuffer buffer;
+    private final long slotMask;
+
+    private SolutionDatabase(MappedByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a solution database");
+        }
+        this.buffer = buffer;
+        this.slotMask = buffer.getLong(8) - 1;
+    }
+
+    /**
+     * Opens the database at <code>path</code> for lookups
+     */
+    public static SolutionDatabase open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new SolutionDatabase(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Builds the database at <code>database</code> from the records spilled to <code>spill</code>
+     */
+    public static void build(Path spill, Path database) throws IOException {
+        long records = Files.size(spill) / Long.BYTES;
+        long slots = Long.highestOneBit(Math.max(records * 2, 2) - 1) << 1;
+        long size = HEADER_SIZE + slots * Long.BYTES;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many positions: " + records);
+        }
+        Files.deleteIfExists(database);
+        try (var channel = FileChannel.open(database, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+             var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(spill), 1 << 16))) {
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.putInt(0, MAGIC);
+            buffer.putLong(8, slots);
+            for (long i = 0; i < records; i++) {
+                long record;
+                try {
+                    record = input.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                insert(buffer, slots - 1, record);
+            }
+            buffer.force();
+        }
+    }
+
+    private static void insert(MappedByteBuffer buffer, long slotMask, long record) {
+        if (record == 0) {
+            return;
+        }
+        for (long slot = record >>> 1 & slotMask; ; slot = (slot + 1) & slotMask) {
+            int offset = (int) (HEADER_SIZE + slot * Long.BYTES);
+            long stored = buffer.getLong(offset);
+            if (stored == 0 || (stored ^ record) >>> 1 == 0) {
+                buffer.putLong(offset, record);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the result of the position of <code>hash</code> for the player who moves next:
+     * 1 if won, -1 if lost, 0 if the position is not in the database
+     */
+    public int probe(long hash) {
+        for (long slot = hash >>> 1 & slotMask; ; slot = (slot + 1) & slotMask) {
+            long stored = buffer.getLong((int) (HEADER_SIZE + slot * Long.BYTES));
+            if (stored == 0) {
+                return 0;
+            }
+            if ((stored ^ hash) >>> 1 == 0) {
+                return (stored & 1L) != 0 ? 1 : -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package boardgame.engine;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SolutionWriter implements Closeable {
+    /**
+     * Spills solved positions to disk as they are found
+     * Every record is one long: the hash of the position, its lowest bit set if the position is won
+     */
+
+    private final DataOutputStream output;
+    private long count;
+
+    /**
+     * Constructor of SolutionWriter, creates or truncates the file at <code>path</code>
+     */
+    public SolutionWriter(Path path) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+    }
+
+    /**
+     * Returns the record of a position
+     */
+    static long record(long hash, boolean win) {
+        return hash & ~1L | (win ? 1L : 0L);
+    }
+
+    /**
+     * Appends the result of the position of <code>hash</code>
+     */
+    public synchronized void write(long hash, boolean win) throws IOException {
+        output.writeLong(record(hash, win));
+        count++;
+    }
+
+    /**
+     * Returns the number of records written
+     */
+    public synchronized long getCount() {
+        return count;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        output.close();
+    }
+}
@@ -0,0 +1,303 @@
+package boardgame.engine;
+
+import boardgame.model.BoardSpec;
+import boardgame.model.BoardState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Solver {
+    /**
+     * Strong solver labelling positions as won or lost for the player who moves next
+     * Pieces only move forward, so the positions form a directed acyclic graph which is
+     * searched depth-first. Solved positions are cached in a fixed size transposition table,
+     * so the memory use is bounded. Positions within the first plies of the search can be
+     * spilled to a <code>SolutionWriter</code>, and later packed into a <code>SolutionDatabase</code>.
+     * Within those plies every move is searched, not only the moves needed to prove the result,
+     * so the database labels every position reachable in them, except the finished games.
+     */
+
+    /**
+     * Cache depths of a solved position, labelled if all of its children were solved too
+     */
+    private static final int LABELLED_DEPTH = 0xFF;
+    private static final int SOLVED_DEPTH = LABELLED_DEPTH - 1;
+    private static final int WON = 1;
+    private static final int LOST = -1;
+
+    private final TranspositionTable table;
+    private final LongAdder nodes = new LongAdder();
+    private SolutionWriter writer;
+    private int storedPlies;
+
+    /**
+     * Constructor of Solver caching results in <code>megabytes</code> MB of memory
+     */
+    public Solver(int megabytes) {
+        this.table = new TranspositionTable(megabytes);
+    }
+
+    /**
+     * Spills every position solved within <code>plies</code> moves of the solved root to <code>writer</code>
+     */
+    public void setWriter(SolutionWriter writer, int plies) {
+        this.writer = writer;
+        this.storedPlies = plies;
+    }
+
+    /**
+     * Returns the number of positions visited so far
+     */
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    /**
+     * Checks if the player who moves next in <code>state</code> wins with perfect play
+     */
+    public boolean isWin(BoardState state) {
+        return new Search(new BoardState(state), 0, null).isWin(0);
+    }
+
+    /**
+     * Checks if the player who moves next in <code>state</code> wins with perfect play,
+     * solving the subtrees of the first <code>splitPlies</code> plies in parallel on <code>pool</code>
+     */
+    public boolean parallelIsWin(BoardState state, int splitPlies, ForkJoinPool pool) {
+        return pool.invoke(new SolveTask(new BoardState(state), 0, splitPlies, null));
+    }
+
+    /**
+     * Checks if every child of a position at <code>ply</code> has to be solved, so that they are all stored
+     */
+    private boolean isLabelled(int ply) {
+        return writer != null && ply <= storedPlies;
+    }
+
+    /**
+     * Returns the cached result of a position at <code>ply</code>: 1 if won, -1 if lost, 0 if unknown
+     * A position of the stored plies is only known if its children were labelled too
+     */
+    private int probe(long key, int ply) {
+        long entry = table.probe(key);
+        if (entry == TranspositionTable.MISS
+                || isLabelled(ply) && TranspositionTable.depth(entry) != LABELLED_DEPTH) {
+            return 0;
+        }
+        return TranspositionTable.score(entry);
+    }
+
+    private void record(BoardState state, int ply, boolean win) {
+        table.store(state.getHash(), isLabelled(ply) ? LABELLED_DEPTH : SOLVED_DEPTH,
+                TranspositionTable.EXACT, win ? WON : LOST, -1);
+        if (writer != null && ply <= storedPlies) {
+            try {
+                writer.write(state.getHash(), win);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Thrown by a search of a task aborted because a sibling proved the result of their parent
+     */
+    private static final class Aborted extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        private static final Aborted INSTANCE = new Aborted();
+
+        private Aborted() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Depth-first search of a single thread, working on its own copy of the state
+     * A search run by a task stops when the task is aborted, only the positions it finished are recorded
+     */
+    private class Search {
+        private final BoardState state;
+        private final int basePly;
+        private final SolveTask task;
+        private final int[][] moves;
+        private long visited;
+
+        Search(BoardState state, int basePly, SolveTask task) {
+            this.state = state;
+            this.basePly = basePly;
+            this.task = task;
+            this.moves = new int[state.getSpec().getMaxPlies() + 1][state.getSpec().getMaxMoves()];
+        }
+
+        boolean isWin(int ply) {
+            if (++visited == 4096) {
+                nodes.add(visited);
+                visited = 0;
+                if (task != null && task.isAborted()) {
+                    throw Aborted.INSTANCE;
+                }
+            }
+            var winner = state.getWinner();
+            if (winner != null) {
+                return winner == state.getNextPlayer();
+            }
+            int cached = probe(state.getHash(), ply);
+            if (cached != 0) {
+                return cached == WON;
+            }
+            int[] list = moves[ply - basePly];
+            int count = state.generateMoves(list);
+            orderCapturesFirst(state, list, count);
+            boolean label = isLabelled(ply);
+            boolean win = false;
+            for (int i = 0; i < count && (!win || label); i++) {
+                state.makeMove(list[i]);
+                win |= !isWin(ply + 1);
+                state.unmakeMove();
+            }
+            record(state, ply, win);
+            if (ply == basePly) {
+                nodes.add(visited);
+                visited = 0;
+            }
+            return win;
+        }
+    }
+
+    /**
+     * Moves the captures to the front of <code>moves</code>
+     */
+    private static void orderCapturesFirst(BoardState state, int[] moves, int count) {
+        int front = 0;
+        for (int i = 0; i < count; i++) {
+            if (state.isCapture(moves[i])) {
+                int move = moves[i];
+                moves[i] = moves[front];
+                moves[front++] = move;
+            }
+        }
+    }
+
+    /**
+     * Task solving the subtree of its own copy of a state,
+     * it forks a task for each move in the first <code>splitPlies</code> plies
+     * The first move is solved before the others are forked, as it is most likely to prove a win.
+     * When a move is proved to win, the tasks of the other moves are aborted, and their result is null.
+     */
+    private class SolveTask extends RecursiveTask<Boolean> {
+        private static final long serialVersionUID = 1L;
+
+        private final BoardState state;
+        private final int ply;
+        private final int splitPlies;
+        private final SolveTask parent;
+        private volatile boolean aborted;
+
+        SolveTask(BoardState state, int ply, int splitPlies, SolveTask parent) {
+            this.state = state;
+            this.ply = ply;
+            this.splitPlies = splitPlies;
+            this.parent = parent;
+        }
+
+        /**
+         * Checks if the task or one of its ancestors was aborted
+         */
+        boolean isAborted() {
+            for (var task = this; task != null; task = task.parent) {
+                if (task.aborted) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        protected Boolean compute() {
+            try {
+                return solve();
+            } catch (Aborted e) {
+                return null;
+            }
+        }
+
+        private Boolean solve() {
+            if (isAborted()) {
+                return null;
+            }
+            if (ply >= splitPlies || state.isGameOver()) {
+                return new Search(state, ply, this).isWin(ply);
+            }
+            int cached = probe(state.getHash(), ply);
+            if (cached != 0) {
+                return cached == WON;
+            }
+            int[] moves = new int[state.getSpec().getMaxMoves()];
+            int count = state.generateMoves(moves);
+            orderCapturesFirst(state, moves, count);
+            var tasks = new SolveTask[count];
+            for (int i = 0; i < count; i++) {
+                var child = new BoardState(state);
+                child.makeMove(moves[i]);
+                tasks[i] = new SolveTask(child, ply + 1, splitPlies, this);
+            }
+            boolean label = isLabelled(ply);
+            Boolean first = tasks[0].compute();
+            if (first == null) {
+                return null;
+            }
+            boolean win = !first;
+            if (!win || label) {
+                for (int i = 1; i < count; i++) {
+                    tasks[i].fork();
+                }
+                // Every forked task is joined, so none of them is still running when the result is returned
+                for (int i = count - 1; i >= 1; i--) {
+                    Boolean result = tasks[i].join();
+                    if (result != null && !result && !win) {
+                        win = true;
+                        if (!label) {
+                            for (var task : tasks) {
+                                task.aborted = true;
+                            }
+                        }
+                    }
+                }
+            }
+            if (!win && isAborted()) {
+                return null;
+            }
+            record(state, ply, win);
+            return win;
+        }
+    }
+
+    /**
+     * Solves the starting position and writes the positions of the first plies to a database
+     * Arguments: database path, plies to store, cache size in MB, plies solved in parallel
+     */
+    public static void main(String[] args) throws IOException {
+        Path database = Path.of(args.length > 0 ? args[0] : "solution.db");
+        int storedPlies = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int megabytes = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+        int splitPlies = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+
+        var solver = new Solver(megabytes);
+        Path spill = Files.createTempFile("solution", ".spill");
+        long start = System.nanoTime();
+        boolean win;
+        try (var writer = new SolutionWriter(spill)) {
+            solver.setWriter(writer, storedPlies);
+            win = solver.parallelIsWin(new BoardState(BoardSpec.STANDARD), splitPlies, ForkJoinPool.commonPool());
+        }
+        SolutionDatabase.build(spill, database);
+        Files.delete(spill);
+        System.out.printf("The player who moves first %s, %d positions in %.1f s%n",
+                win ? "wins" : "loses", solver.getNodes(), (System.nanoTime() - start) / 1e9);
+    }
+}
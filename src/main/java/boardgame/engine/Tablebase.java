@@ -0,0 +1,294 @@
+package boardgame.engine;
+
+import boardgame.model.BoardSpec;
+import boardgame.model.BoardState;
+import boardgame.model.PieceType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static boardgame.model.BoardGameModel.BOARD_HEIGHT;
+import static boardgame.model.BoardGameModel.BOARD_WIDTH;
+
+public class Tablebase {
+    /**
+     * Endgame tablebase: the result of every position with at most <code>maxPieces</code> pieces per player
+     * The file starts with a header (magic number, board size, black tiles, maximum piece count),
+     * followed by the offset of every material combination and the tables themselves.
+     * A position is indexed by the rank of the Player2 and the Player1 cell set in the combinatorial
+     * number system and the player who moves next. Every entry takes 2 bits: unknown, won or lost.
+     * Lookups read the memory-mapped file directly.
+     */
+
+    /**
+     * Results of a probe, for the player who moves next
+     */
+    public static final int WON = 1;
+    public static final int LOST = -1;
+    public static final int UNKNOWN = 0;
+
+    private static final int MAGIC = 0x54424153;
+    private static final int HEADER_SIZE = 32;
+    private static final int ENTRY_WON = 1;
+    private static final int ENTRY_LOST = 2;
+
+    /**
+     * Binomial coefficients, <code>BINOMIALS[n][k]</code> is n choose k
+     */
+    private static final long[][] BINOMIALS = new long[BoardState.CELL_COUNT + 1][BoardState.CELL_COUNT + 1];
+
+    static {
+        for (int n = 0; n <= BoardState.CELL_COUNT; n++) {
+            BINOMIALS[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + BINOMIALS[n - 1][k];
+            }
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final long blackBoard;
+    private final int maxPieces;
+    private final long[] offsets;
+
+    private Tablebase(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != BOARD_HEIGHT || buffer.getInt(8) != BOARD_WIDTH) {
+            throw new IllegalArgumentException("Not a tablebase of this board");
+        }
+        this.buffer = buffer;
+        this.blackBoard = buffer.getLong(16);
+        this.maxPieces = buffer.getInt(24);
+        this.offsets = new long[maxPieces * maxPieces];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = buffer.getLong(HEADER_SIZE + i * Long.BYTES);
+        }
+    }
+
+    /**
+     * Opens the tablebase at <code>path</code> for lookups
+     */
+    public static Tablebase open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Tablebase(buffer);
+        }
+    }
+
+    /**
+     * Returns the maximum piece count per player
+     */
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * Returns the result of <code>state</code> for the player who moves next,
+     * <code>UNKNOWN</code> if the position is not covered by the tablebase
+     */
+    public int probe(BoardState state) {
+        int red = state.getRedCount();
+        int blue = state.getBlueCount();
+        if (red == 0 || blue == 0 || red > maxPieces || blue > maxPieces
+                || state.getSpec().getWidth() != BOARD_WIDTH || state.getSpec().getHeight() != BOARD_HEIGHT
+                || state.getBlackBoard() != blackBoard) {
+            return UNKNOWN;
+        }
+        var winner = state.getWinner();
+        if (winner != null) {
+            return winner == state.getNextPlayer() ? WON : LOST;
+        }
+        long index = index(state);
+        long offset = offsets[(red - 1) * maxPieces + blue - 1] + index / 4;
+        int entry = buffer.get(Math.toIntExact(offset)) >>> (index % 4 * 2) & 3;
+        return entry == ENTRY_WON ? WON : entry == ENTRY_LOST ? LOST : UNKNOWN;
+    }
+
+    /**
+     * Returns the number of entries of a material combination
+     */
+    private static long entryCount(int red, int blue) {
+        return BINOMIALS[BoardState.CELL_COUNT][red] * BINOMIALS[BoardState.CELL_COUNT][blue] * 2;
+    }
+
+    /**
+     * Returns the size of the table of a material combination in bytes, 4 entries per byte
+     */
+    private static long tableSize(int red, int blue) {
+        return (entryCount(red, blue) + 3) / 4;
+    }
+
+    /**
+     * Returns the rank of a set of cells in the combinatorial number system
+     */
+    private static long rank(long board) {
+        long rank = 0;
+        int i = 1;
+        for (; board != 0; board &= board - 1) {
+            rank += BINOMIALS[Long.numberOfTrailingZeros(board)][i++];
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the index of <code>state</code> in the table of its material combination
+     */
+    private static long index(BoardState state) {
+        long combinations = BINOMIALS[BoardState.CELL_COUNT][state.getBlueCount()];
+        long index = rank(state.getRedBoard()) * combinations + rank(state.getBlueBoard());
+        return index * 2 + (state.getNextPlayer() == PieceType.RED ? 1 : 0);
+    }
+
+    /**
+     * Returns the set of <code>count</code> cells of the given <code>rank</code>
+     */
+    private static long unrank(long rank, int count) {
+        long board = 0;
+        for (int i = count; i > 0; i--) {
+            int cell = i - 1;
+            while (cell + 1 <= BoardState.CELL_COUNT - 1 && BINOMIALS[cell + 1][i] <= rank) {
+                cell++;
+            }
+            rank -= BINOMIALS[cell][i];
+            board |= 1L << cell;
+        }
+        return board;
+    }
+
+    /**
+     * Returns the cells of a board in increasing order
+     */
+    private static int[] cells(long board) {
+        int[] cells = new int[Long.bitCount(board)];
+        for (int i = 0; board != 0; board &= board - 1) {
+            cells[i++] = Long.numberOfTrailingZeros(board);
+        }
+        return cells;
+    }
+
+    /**
+     * Generates the tablebase of every material combination with at most <code>maxPieces</code> pieces
+     * per player on the board with the given black tiles, and writes it to <code>path</code>
+     */
+    public static void generate(long blackBoard, int maxPieces, Path path) throws IOException {
+        // Checked before the tables are allocated, each table is an array and the file is mapped as one buffer
+        long size = HEADER_SIZE + (long) maxPieces * maxPieces * Long.BYTES;
+        for (int red = 1; red <= maxPieces; red++) {
+            for (int blue = 1; blue <= maxPieces; blue++) {
+                size += tableSize(red, blue);
+            }
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Tablebase too large: " + size + " bytes");
+        }
+        var generator = new Generator(maxPieces);
+        for (int total = 2; total <= 2 * maxPieces; total++) {
+            for (int red = 1; red <= maxPieces; red++) {
+                int blue = total - red;
+                if (blue >= 1 && blue <= maxPieces) {
+                    generator.generate(blackBoard, red, blue);
+                }
+            }
+        }
+
+        var buffer = ByteBuffer.allocate(HEADER_SIZE + maxPieces * maxPieces * Long.BYTES);
+        buffer.putInt(MAGIC).putInt(BOARD_HEIGHT).putInt(BOARD_WIDTH).putInt(0)
+                .putLong(blackBoard).putInt(maxPieces).putInt(0);
+        long offset = buffer.capacity();
+        for (var table : generator.tables) {
+            buffer.putLong(offset);
+            offset += table.length;
+        }
+        buffer.flip();
+        try (var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(buffer);
+            for (var table : generator.tables) {
+                channel.write(ByteBuffer.wrap(table));
+            }
+        }
+    }
+
+    /**
+     * Generates the tables in memory, solving positions depth-first with the tables as cache
+     */
+    private static class Generator {
+        private final int maxPieces;
+        private final byte[][] tables;
+        // Every state is built on the standard board by BoardState(long, int[], int[])
+        private final int[][] moves = new int[BoardSpec.STANDARD.getMaxPlies() + 1][BoardSpec.STANDARD.getMaxMoves()];
+
+        Generator(int maxPieces) {
+            this.maxPieces = maxPieces;
+            this.tables = new byte[maxPieces * maxPieces][];
+            for (int red = 1; red <= maxPieces; red++) {
+                for (int blue = 1; blue <= maxPieces; blue++) {
+                    tables[(red - 1) * maxPieces + blue - 1] = new byte[Math.toIntExact(tableSize(red, blue))];
+                }
+            }
+        }
+
+        void generate(long blackBoard, int red, int blue) {
+            long redCombinations = BINOMIALS[BoardState.CELL_COUNT][red];
+            long blueCombinations = BINOMIALS[BoardState.CELL_COUNT][blue];
+            for (long redRank = 0; redRank < redCombinations; redRank++) {
+                long redBoard = unrank(redRank, red);
+                if ((redBoard & blackBoard) != 0) {
+                    continue;
+                }
+                for (long blueRank = 0; blueRank < blueCombinations; blueRank++) {
+                    long blueBoard = unrank(blueRank, blue);
+                    if ((blueBoard & (blackBoard | redBoard)) != 0) {
+                        continue;
+                    }
+                    var state = new BoardState(blackBoard, cells(redBoard), cells(blueBoard));
+                    solve(state, 0);
+                    state.setNextPlayer(PieceType.RED);
+                    solve(state, 0);
+                }
+            }
+        }
+
+        /**
+         * Returns true if the player who moves next wins, storing the result of every visited position
+         */
+        private boolean solve(BoardState state, int ply) {
+            var winner = state.getWinner();
+            if (winner != null) {
+                return winner == state.getNextPlayer();
+            }
+            byte[] table = tables[(state.getRedCount() - 1) * maxPieces + state.getBlueCount() - 1];
+            long index = index(state);
+            int shift = (int) (index % 4 * 2);
+            int entry = table[Math.toIntExact(index / 4)] >>> shift & 3;
+            if (entry != 0) {
+                return entry == ENTRY_WON;
+            }
+            int[] list = moves[ply];
+            int count = state.generateMoves(list);
+            boolean win = false;
+            for (int i = 0; i < count && !win; i++) {
+                state.makeMove(list[i]);
+                win = !solve(state, ply + 1);
+                state.unmakeMove();
+            }
+            table[Math.toIntExact(index / 4)] |= (win ? ENTRY_WON : ENTRY_LOST) << shift;
+            return win;
+        }
+    }
+
+    /**
+     * Generates the tablebase of the starting layout
+     * Arguments: tablebase path, maximum piece count per player
+     */
+    public static void main(String[] args) throws IOException {
+        Path path = Path.of(args.length > 0 ? args[0] : "endgame.tb");
+        int maxPieces = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        long start = System.nanoTime();
+        generate(BoardSpec.STANDARD.getBlackBoard(), maxPieces, path);
+        System.out.printf("Generated %s in %.1f s%n", path, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,151 @@
+package boardgame.engine;
+
+import java.util.Arrays;
+
+public class TranspositionTable {
+    /**
+     * Fixed size hash table of search results, shared by search threads without locks
+     * Every entry is two longs: the key XOR-ed with the data, and the data.
+     * An entry torn by a concurrent write fails the key check and is treated as a miss.
+     * A bucket has two entries, the first one keeps the deepest result of the current search,
+     * the second one is always replaced.
+     */
+
+    /**
+     * Bound types of a stored score
+     */
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    /**
+     * Value returned by <code>probe</code> if there is no entry of the key
+     */
+    public static final long MISS = 0;
+
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int LONGS_PER_BUCKET = 2 * LONGS_PER_ENTRY;
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    /**
+     * Layout of the data: score (16 bits), move (8 bits), depth (8 bits), bound (2 bits), generation (8 bits)
+     */
+    private static final int MOVE_SHIFT = 16;
+    private static final int DEPTH_SHIFT = 24;
+    private static final int BOUND_SHIFT = 32;
+    private static final int GENERATION_SHIFT = 34;
+    private static final int NO_MOVE = 0xFF;
+
+    private final long[] table;
+    private final int bucketMask;
+    private volatile int generation;
+
+    /**
+     * Constructor of TranspositionTable using at most <code>megabytes</code> MB of memory
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes <= 0) {
+            throw new IllegalArgumentException();
+        }
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / BYTES_PER_BUCKET);
+        buckets = Math.min(buckets, Integer.highestOneBit((Integer.MAX_VALUE - 8) / LONGS_PER_BUCKET));
+        this.table = new long[(int) buckets * LONGS_PER_BUCKET];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    /**
+     * Returns the number of entries
+     */
+    public int getCapacity() {
+        return table.length / LONGS_PER_ENTRY;
+    }
+
+    /**
+     * Removes every entry
+     */
+    public void clear() {
+        Arrays.fill(table, 0);
+    }
+
+    /**
+     * Starts a new search, entries of previous searches get replaced first
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Returns the data stored for <code>key</code>, or <code>MISS</code>
+     */
+    public long probe(long key) {
+        int index = (int) key & bucketMask;
+        int base = index * LONGS_PER_BUCKET;
+        for (int i = base; i < base + LONGS_PER_BUCKET; i += LONGS_PER_ENTRY) {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == key && data != MISS) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+    /**
+     * Stores a search result of the position of <code>key</code>
+     * <code>move</code> is the best move found, or <code>Move.NONE</code>
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        int base = ((int) key & bucketMask) * LONGS_PER_BUCKET;
+        long data = (score & 0xFFFFL)
+                | (long) (move < 0 ? NO_MOVE : move & 0xFF) << MOVE_SHIFT
+                | (long) (Math.min(depth, 0xFF) & 0xFF) << DEPTH_SHIFT
+                | (long) bound << BOUND_SHIFT
+                | (long) generation << GENERATION_SHIFT;
+        long preferred = table[base + 1];
+        boolean samePosition = (table[base] ^ preferred) == key;
+        if (preferred == MISS || generation(preferred) != generation || depth >= depth(preferred)
+                || samePosition && bound == EXACT) {
+            if (!samePosition && preferred != MISS) {
+                table[base + 2] = table[base];
+                table[base + 3] = preferred;
+            }
+            table[base] = key ^ data;
+            table[base + 1] = data;
+        } else {
+            table[base + 2] = key ^ data;
+            table[base + 3] = data;
+        }
+    }
+
+    /**
+     * Returns the score of an entry
+     */
+    public static int score(long data) {
+        return (short) data;
+    }
+
+    /**
+     * Returns the best move of an entry, or <code>Move.NONE</code>
+     */
+    public static int move(long data) {
+        int move = (int) (data >>> MOVE_SHIFT) & 0xFF;
+        return move == NO_MOVE ? -1 : move;
+    }
+
+    /**
+     * Returns the search depth of an entry
+     */
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    /**
+     * Returns the bound type of an entry
+     */
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> GENERATION_SHIFT) & 0xFF;
+    }
+}
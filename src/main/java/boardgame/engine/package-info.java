@@ -0,0 +1,5 @@
+package boardgame.engine;
+
+/**
+ * Contains search, analysis and computer players working on <code>BoardState</code>
+ */
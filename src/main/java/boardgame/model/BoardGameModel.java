@@ -1,8 +1,5 @@
 package boardgame.model;
 
-import javafx.beans.property.ObjectProperty;
-import javafx.geometry.Pos;
-
 import java.util.*;
 
 public class BoardGameModel {
@@ -17,61 +14,101 @@ public class BoardGameModel {
     public static final int BOARD_WIDTH = 7;
 
     /**
-     * Contains each players pieces
+     * Contains each players pieces, the first <code>getRedPieceCount()</code> and <code>getBluePieceCount()</code>
+     * elements are in the game, captured pieces are removed in place and put back when the capture is taken back
      */
-    private Piece[] redPieces;
-    private Piece[] bluePieces;
+    private final Piece[] redPieces;
+    private final Piece[] bluePieces;
 
     /**
      * Contains black tile positions
      */
     public Position[] unselectablePositions;
 
-    public BoardGameModel() {
-        this(new Position[]{new Position(3, 2),
-                        new Position(2, 4)},
+    /**
+     * Board variant of the game
+     */
+    private final BoardSpec spec;
 
-                new Piece(PieceType.RED, new Position(0, 0)),
-                new Piece(PieceType.RED, new Position(0, BOARD_WIDTH - 6)),
-                new Piece(PieceType.RED, new Position(0, BOARD_WIDTH - 5)),
-                new Piece(PieceType.RED, new Position(0, BOARD_WIDTH - 4)),
-                new Piece(PieceType.RED, new Position(0, BOARD_WIDTH - 3)),
-                new Piece(PieceType.RED, new Position(0, BOARD_WIDTH - 2)),
-                new Piece(PieceType.RED, new Position(0, BOARD_WIDTH - 1)),
+    /**
+     * Primitive representation of the pieces and black tiles, every rule is evaluated on it
+     */
+    private final GameState state;
+
+    /**
+     * Pieces captured by each move that can be taken back, indexed by ply
+     */
+    private final Piece[] capturedPieces;
+
+    /**
+     * Listeners notified of piece moves, the model itself does not depend on any UI toolkit
+     */
+    private final List<PieceListener> listeners = new ArrayList<>();
 
-                new Piece(PieceType.BLUE, new Position(BOARD_HEIGHT - 1, 0)),
-                new Piece(PieceType.BLUE, new Position(BOARD_HEIGHT - 1, BOARD_WIDTH - 6)),
-                new Piece(PieceType.BLUE, new Position(BOARD_HEIGHT - 1, BOARD_WIDTH - 5)),
-                new Piece(PieceType.BLUE, new Position(BOARD_HEIGHT - 1, BOARD_WIDTH - 4)),
-                new Piece(PieceType.BLUE, new Position(BOARD_HEIGHT - 1, BOARD_WIDTH - 3)),
-                new Piece(PieceType.BLUE, new Position(BOARD_HEIGHT - 1, BOARD_WIDTH - 2)),
-                new Piece(PieceType.BLUE, new Position(BOARD_HEIGHT - 1, BOARD_WIDTH - 1)));
+    public BoardGameModel() {
+        this(BoardSpec.STANDARD);
+    }
 
+    /**
+     * Constructor of BoardGameModel, the starting layout of the board variant <code>spec</code>
+     */
+    public BoardGameModel(BoardSpec spec) {
+        this.spec = spec;
+        this.unselectablePositions = spec.getBlackTiles();
+        this.redPieces = pieces(PieceType.RED, spec.getRedStart());
+        this.bluePieces = pieces(PieceType.BLUE, spec.getBlueStart());
+        this.state = GameState.of(spec);
+        this.capturedPieces = new Piece[spec.getMaxPlies()];
+    }
 
+    private Piece[] pieces(PieceType type, int[] cells) {
+        Piece[] pieces = new Piece[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            pieces[i] = new Piece(type, i, spec.positionOf(cells[i]));
+        }
+        return pieces;
     }
 
     /**
      * Constructor of BoardGameModel
      * sets base values of <code>redPieces</code>, <code>bluePieces</code> and <code>unselectablePositions</code>
+     * The first <code>BOARD_WIDTH</code> pieces are Player2 pieces, the next <code>BOARD_WIDTH</code> Player1 pieces,
+     * the model creates its own pieces at their positions, numbered in the same order
      */
     public BoardGameModel(Position[] positions, Piece... pieces) {
+        this(specOf(positions, pieces));
+    }
+
+    private static BoardSpec specOf(Position[] positions, Piece[] pieces) {
         checkPieces(pieces);
         checkPositions(positions);
-        this.unselectablePositions = positions.clone();
-        Piece[] redPieces = new Piece[BOARD_WIDTH];
-        Piece[] bluePieces = new Piece[BOARD_WIDTH];
+        List<Position> redPositions = new ArrayList<>(BOARD_WIDTH);
+        List<Position> bluePositions = new ArrayList<>(BOARD_WIDTH);
         for (int i = 0; i < BOARD_WIDTH; i++) {
-            redPieces[i] = pieces[i];
-            bluePieces[i] = pieces[i + BOARD_WIDTH];
+            redPositions.add(pieces[i].getPosition());
+            bluePositions.add(pieces[i + BOARD_WIDTH].getPosition());
         }
-        this.redPieces = redPieces.clone();
-        this.bluePieces = bluePieces.clone();
+        return new BoardSpec(BOARD_HEIGHT, BOARD_WIDTH, List.of(positions), redPositions, bluePositions);
+    }
+
+    /**
+     * Returns the board variant of the game
+     */
+    public BoardSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * Returns the primitive representation of the game state
+     */
+    public GameState getState() {
+        return state;
     }
 
     /**
      * Checks if given <code>pieces</code> can exist
      */
-    private void checkPieces(Piece[] pieces) {
+    private static void checkPieces(Piece[] pieces) {
         var seen = new HashSet<Position>();
         for (var piece : pieces) {
             if (!isOnBoard(piece.getPosition()) || seen.contains(piece.getPosition())) {
@@ -84,7 +121,7 @@ public class BoardGameModel {
     /**
      * Checks if given <code>positions</code> can exist
      */
-    private void checkPositions(Position[] positions) {
+    private static void checkPositions(Position[] positions) {
         ArrayList<Integer> starterRows = new ArrayList<>();
         starterRows.add(0);
         starterRows.add(BOARD_HEIGHT - 1);
@@ -101,28 +138,28 @@ public class BoardGameModel {
      * Returns Player2 piece at given index
      */
     public Piece getRedPiece(int pieceNumber) {
-        return redPieces[pieceNumber];
+        return redPieces[Objects.checkIndex(pieceNumber, getRedPieceCount())];
     }
 
     /**
      * Returns Player1 piece at given index
      */
     public Piece getBluePiece(int pieceNumber) {
-        return bluePieces[pieceNumber];
+        return bluePieces[Objects.checkIndex(pieceNumber, getBluePieceCount())];
     }
 
     /**
      * Returns Player2 piece count
      */
     public int getRedPieceCount() {
-        return redPieces.length;
+        return state.getRedCount();
     }
 
     /**
      * Returns Player1 piece count
      */
     public int getBluePieceCount() {
-        return bluePieces.length;
+        return state.getBlueCount();
     }
 
     /**
@@ -143,99 +180,89 @@ public class BoardGameModel {
      * Returns Player2 piece type
      */
     public PieceType getRedPieceType(int pieceNumber) {
-        return redPieces[pieceNumber].getType();
+        return getRedPiece(pieceNumber).getType();
     }
 
     /**
      * Returns Player1 piece type
      */
     public PieceType getBluePieceType(int pieceNumber) {
-        return bluePieces[pieceNumber].getType();
+        return getBluePiece(pieceNumber).getType();
     }
 
     /**
      * Returns Player2 piece position at given index
      */
     public Position getRedPiecePosition(int pieceNumber) {
-        return redPieces[pieceNumber].getPosition();
+        return getRedPiece(pieceNumber).getPosition();
     }
 
     /**
      * Returns Player1 piece position at given index
      */
     public Position getBluePiecePosition(int pieceNumber) {
-        return bluePieces[pieceNumber].getPosition();
+        return getBluePiece(pieceNumber).getPosition();
     }
 
     /**
-     * Returns Player2 piece position property at given index
+     * Registers a <code>listener</code> notified after every piece move
      */
-    public ObjectProperty<Position> redPositionProperty(int pieceNumber) {
-        return redPieces[pieceNumber].positionProperty();
+    public void addPieceListener(PieceListener listener) {
+        listeners.add(Objects.requireNonNull(listener));
     }
 
     /**
-     * Returns Player1 piece position property at given index
+     * Removes a <code>listener</code> registered by <code>addPieceListener</code>
      */
-    public ObjectProperty<Position> bluePositionProperty(int pieceNumber) {
+    public void removePieceListener(PieceListener listener) {
+        listeners.remove(listener);
+    }
 
-        return bluePieces[pieceNumber].positionProperty();
+    /**
+     * Moves <code>piece</code> to <code>position</code> and notifies the listeners
+     */
+    private void setPiecePosition(Piece piece, Position position) {
+        Position oldPosition = piece.getPosition();
+        piece.setPosition(position);
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).pieceMoved(piece, oldPosition, position);
+        }
     }
 
     /**
      * Checks if a Player2 pieces <code>direction</code> is a valid move
      */
     public boolean isValidRedMove(int pieceNumber, RedDirection direction) {
-        if (pieceNumber < 0 || pieceNumber >= redPieces.length) {
+        if (pieceNumber < 0 || pieceNumber >= getRedPieceCount()) {
             throw new IllegalArgumentException();
         }
-        Position newPosition = redPieces[pieceNumber].getPosition().moveTo(direction);
-        if (!isOnBoard(newPosition) || isUnselectable(newPosition)) {
-            return false;
-        }
-        if (direction.equals(RedDirection.DOWN) && getBluePieceNumber(newPosition).isPresent()) {
-            return false;
-        }
-        for (var piece : redPieces) {
-            if (piece.getPosition().equals(newPosition)) {
-                return false;
-            }
-        }
-        return true;
+        return state.isValidRedMove(pieceNumber, direction);
     }
 
     /**
      * Checks if a Player1 pieces <code>direction</code> is a valid move
      */
     public boolean isValidBlueMove(int pieceNumber, BlueDirection direction) {
-        if (pieceNumber < 0 || pieceNumber >= bluePieces.length) {
+        if (pieceNumber < 0 || pieceNumber >= getBluePieceCount()) {
             throw new IllegalArgumentException();
         }
-        Position newPosition = bluePieces[pieceNumber].getPosition().moveTo(direction);
-        if (!isOnBoard(newPosition) || isUnselectable(newPosition)) {
-            return false;
-        }
-        if (direction.equals(BlueDirection.UP) && getRedPieceNumber(newPosition).isPresent()) {
-            return false;
-        }
-        for (var piece : bluePieces) {
-            if (piece.getPosition().equals(newPosition)) {
-                return false;
-            }
-        }
-        return true;
+        return state.isValidBlueMove(pieceNumber, direction);
     }
 
     /**
      * Checks if a position is unselectable (black tile)
      */
     public boolean isUnselectable(Position position) {
-        for (var unselectable : unselectablePositions) {
-            if (position.equals(unselectable)) {
-                return true;
-            }
-        }
-        return false;
+        return spec.isOnBoard(position) && state.isBlack(spec.cellOf(position));
+    }
+
+    /**
+     * Returns the position <code>direction</code> leads to from <code>position</code>,
+     * or null if it would leave the board
+     */
+    public Position getTargetPosition(Position position, Direction direction) {
+        int target = spec.targetOf(spec.cellOf(position), direction);
+        return target < 0 ? null : spec.positionOf(target);
     }
 
     /**
@@ -243,7 +270,7 @@ public class BoardGameModel {
      */
     public Set<RedDirection> getAllRedValidMoves() {
         EnumSet<RedDirection> allValidMoves = EnumSet.noneOf(RedDirection.class);
-        for (var pieceNumber = 0; pieceNumber < redPieces.length; pieceNumber++) {
+        for (var pieceNumber = 0; pieceNumber < getRedPieceCount(); pieceNumber++) {
             allValidMoves.addAll(getRedValidMoves(pieceNumber));
             }
         return allValidMoves;
@@ -254,7 +281,7 @@ public class BoardGameModel {
      */
     public Set<BlueDirection> getAllBlueValidMoves() {
         EnumSet<BlueDirection> allValidMoves = EnumSet.noneOf(BlueDirection.class);
-        for (var pieceNumber = 0; pieceNumber < bluePieces.length; pieceNumber++) {
+        for (var pieceNumber = 0; pieceNumber < getBluePieceCount(); pieceNumber++) {
             allValidMoves.addAll(getBlueValidMoves(pieceNumber));
         }
         return allValidMoves;
@@ -286,48 +313,121 @@ public class BoardGameModel {
         return validMoves;
     }
 
+    /**
+     * Returns the player who moves next
+     */
+    public PieceType getNextPlayer() {
+        return state.getNextPlayer();
+    }
+
+    /**
+     * Returns the Zobrist hash of the game state, identifying the position and the player who moves next
+     */
+    public long getHash() {
+        return state.getHash();
+    }
+
+    /**
+     * Fills <code>moves</code> with the valid moves (see <code>Move</code>) of the player who moves next,
+     * returns the number of moves. <code>moves</code> must have at least <code>getSpec().getMaxMoves()</code> elements
+     */
+    public int generateMoves(int[] moves) {
+        return state.generateMoves(moves);
+    }
+
     /**
      * Moves a Player2 piece in the given <code>direction</code>.
      * If a Player1 piece is in the new position, it is removed from the game
+     * Throws IllegalArgumentException if the move is not valid
      */
     public void redMove(int pieceNumber, RedDirection direction) {
-        redPieces[pieceNumber].moveTo(direction);
-
-        OptionalInt bluePieceIndex = getBluePieceNumber(getRedPiecePosition(pieceNumber));
-        if (bluePieceIndex.isPresent()) {
-            Piece[] tmpBluePieces = new Piece[getBluePieceCount() - 1];
-            int j = 0;
-            for (int i = 0; i < tmpBluePieces.length; i++) {
-                if (bluePieces[j] == bluePieces[bluePieceIndex.getAsInt()]) j++;
-                tmpBluePieces[i] = bluePieces[j];
-                j++;
-            }
-            bluePieces = tmpBluePieces.clone();
+        if (!isValidRedMove(pieceNumber, direction)) {
+            throw new IllegalArgumentException();
         }
+        int ply = state.getPly();
+        int bluePieceIndex = state.redMove(pieceNumber, direction);
+        setPiecePosition(redPieces[pieceNumber], spec.positionOf(state.getRedCell(pieceNumber)));
+
+        capturedPieces[ply] = bluePieceIndex >= 0 ? remove(bluePieces, getBluePieceCount(), bluePieceIndex) : null;
     }
 
     /**
      * Moves a Player1 piece in the given <code>direction</code>.
      * If a Player2 piece is in the new position, it is removed from the game
+     * Throws IllegalArgumentException if the move is not valid
      */
     public void blueMove(int pieceNumber, BlueDirection direction) {
-        bluePieces[pieceNumber].moveTo(direction);
-
-        OptionalInt redPieceIndex = getRedPieceNumber(getBluePiecePosition(pieceNumber));
-        if (redPieceIndex.isPresent()) {
-            Piece[] tmpRedPieces = new Piece[getRedPieceCount() - 1];
-            int j = 0;
-            for (int i = 0; i < tmpRedPieces.length; i++) {
-                if (redPieces[j] == redPieces[redPieceIndex.getAsInt()]) j++;
-                tmpRedPieces[i] = redPieces[j];
-                j++;
+        if (!isValidBlueMove(pieceNumber, direction)) {
+            throw new IllegalArgumentException();
+        }
+        int ply = state.getPly();
+        int redPieceIndex = state.blueMove(pieceNumber, direction);
+        setPiecePosition(bluePieces[pieceNumber], spec.positionOf(state.getBlueCell(pieceNumber)));
+
+        capturedPieces[ply] = redPieceIndex >= 0 ? remove(redPieces, getRedPieceCount(), redPieceIndex) : null;
+    }
+
+    /**
+     * Makes a <code>move</code> (see <code>Move</code>) of the player who moves next
+     * Throws IllegalArgumentException if the move is not valid
+     */
+    public void makeMove(int move) {
+        if (getNextPlayer() == PieceType.RED) {
+            redMove(Move.pieceNumber(move), Move.redDirection(move));
+        } else {
+            blueMove(Move.pieceNumber(move), Move.blueDirection(move));
+        }
+    }
+
+    /**
+     * Takes back the last move, the captured piece gets back to its original index
+     * Throws IllegalStateException if no move was made
+     */
+    public void unmakeMove() {
+        int ply = state.getPly();
+        if (ply == 0) {
+            throw new IllegalStateException();
+        }
+        int pieceNumber = Move.pieceNumber(state.getLastMove());
+        int captured = state.getLastCaptured();
+        boolean redMoved = state.getLastMover() == PieceType.RED;
+        state.unmakeMove();
+        if (redMoved) {
+            setPiecePosition(redPieces[pieceNumber], spec.positionOf(state.getRedCell(pieceNumber)));
+            if (captured >= 0) {
+                insert(bluePieces, getBluePieceCount(), captured, capturedPieces[ply - 1]);
+            }
+        } else {
+            setPiecePosition(bluePieces[pieceNumber], spec.positionOf(state.getBlueCell(pieceNumber)));
+            if (captured >= 0) {
+                insert(redPieces, getRedPieceCount(), captured, capturedPieces[ply - 1]);
             }
-            redPieces = tmpRedPieces.clone();
         }
+        capturedPieces[ply - 1] = null;
     }
 
     /**
-     * Checks if a <code>position</code> is located on the board
+     * Removes the piece at <code>index</code> from the pieces in the game, the <code>count</code> pieces
+     * after the removal, keeping the order of the rest. Returns the removed piece
+     */
+    private static Piece remove(Piece[] pieces, int count, int index) {
+        Piece piece = pieces[index];
+        System.arraycopy(pieces, index + 1, pieces, index, count - index);
+        pieces[count] = piece;
+        return piece;
+    }
+
+    /**
+     * Inserts <code>piece</code> at <code>index</code> of the pieces in the game, the <code>count</code> pieces
+     * after the insertion, moving the rest forward
+     */
+    private static void insert(Piece[] pieces, int count, int index, Piece piece) {
+        System.arraycopy(pieces, index, pieces, index + 1, count - index - 1);
+        pieces[index] = piece;
+    }
+
+    /**
+     * Checks if a <code>position</code> is located on the standard board
      */
     public static boolean isOnBoard(Position position) {
         return 0 <= position.row() && position.row() < BOARD_HEIGHT
@@ -338,7 +438,7 @@ public class BoardGameModel {
      * Returns a list of the positions of ALL pieces
      */
     public List<Position> getAllPiecePositions() {
-        List<Position> positions = new ArrayList<>(redPieces.length + bluePieces.length);
+        List<Position> positions = new ArrayList<>(getRedPieceCount() + getBluePieceCount());
 
         positions.addAll(getRedPiecePositions());
         positions.addAll(getBluePiecePositions());
@@ -350,9 +450,9 @@ public class BoardGameModel {
      * Returns a list of the positions of Player2 pieces
      */
     public List<Position> getRedPiecePositions() {
-        List<Position> positions = new ArrayList<>(redPieces.length);
-        for (var piece : redPieces) {
-            positions.add(piece.getPosition());
+        List<Position> positions = new ArrayList<>(getRedPieceCount());
+        for (int i = 0; i < getRedPieceCount(); i++) {
+            positions.add(redPieces[i].getPosition());
         }
         return positions;
     }
@@ -361,9 +461,9 @@ public class BoardGameModel {
      * Returns a list of the positions of Player1 pieces
      */
     public List<Position> getBluePiecePositions() {
-        List<Position> positions = new ArrayList<>(bluePieces.length);
-        for (var piece : bluePieces) {
-            positions.add(piece.getPosition());
+        List<Position> positions = new ArrayList<>(getBluePieceCount());
+        for (int i = 0; i < getBluePieceCount(); i++) {
+            positions.add(bluePieces[i].getPosition());
         }
         return positions;
     }
@@ -375,7 +475,7 @@ public class BoardGameModel {
         List<Position> allPositions = getRedPiecePositions();
         List<Position> newPositions = new ArrayList<>();
         for (var position : allPositions) {
-            if (position.row() != BOARD_HEIGHT - 1) {
+            if (position.row() != spec.getHeight() - 1) {
                 newPositions.add(position);
             }
         }
@@ -400,24 +500,22 @@ public class BoardGameModel {
      * Returns a Player2 piece's index at the given <code>position</code>
      */
     public OptionalInt getRedPieceNumber(Position position) {
-        for (int i = 0; i < redPieces.length; i++) {
-            if (redPieces[i].getPosition().equals(position)) {
-                return OptionalInt.of(i);
-            }
+        if (position == null || !spec.isOnBoard(position)) {
+            return OptionalInt.empty();
         }
-        return OptionalInt.empty();
+        int pieceNumber = state.getRedPieceNumber(spec.cellOf(position));
+        return pieceNumber < 0 ? OptionalInt.empty() : OptionalInt.of(pieceNumber);
     }
 
     /**
      * Returns a Player1 piece's index at the given <code>position</code>
      */
     public OptionalInt getBluePieceNumber(Position position) {
-        for (int i = 0; i < bluePieces.length; i++) {
-            if (bluePieces[i].getPosition().equals(position)) {
-                return OptionalInt.of(i);
-            }
+        if (position == null || !spec.isOnBoard(position)) {
+            return OptionalInt.empty();
         }
-        return OptionalInt.empty();
+        int pieceNumber = state.getBluePieceNumber(spec.cellOf(position));
+        return pieceNumber < 0 ? OptionalInt.empty() : OptionalInt.of(pieceNumber);
     }
 
     /**
@@ -425,11 +523,11 @@ public class BoardGameModel {
      */
     public String toString() {
         StringJoiner joiner = new StringJoiner(",", "[", "]");
-        for (var piece : redPieces) {
-            joiner.add(piece.toString());
+        for (int i = 0; i < getRedPieceCount(); i++) {
+            joiner.add(redPieces[i].toString());
         }
-        for (var piece : bluePieces) {
-            joiner.add(piece.toString());
+        for (int i = 0; i < getBluePieceCount(); i++) {
+            joiner.add(bluePieces[i].toString());
         }
         return joiner.toString();
     }
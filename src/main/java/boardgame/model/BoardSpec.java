@@ -0,0 +1,328 @@
+package boardgame.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static boardgame.model.BoardGameModel.BOARD_HEIGHT;
+import static boardgame.model.BoardGameModel.BOARD_WIDTH;
+
+public final class BoardSpec {
+    /**
+     * Immutable description of a board variant: its size, black tiles and starting layout
+     * A cell is the index of a position on the board: <code>row * width + col</code>.
+     * Everything the move rules need about the geometry is precomputed here once,
+     * and shared by every state of the variant.
+     */
+
+    /**
+     * Number of directions a piece can move in
+     */
+    public static final int DIRECTIONS = 3;
+
+    /**
+     * Maximum number of pieces of a player, moves and undo records store the piece index in 6 bits
+     */
+    public static final int MAX_PIECES = 63;
+
+    /**
+     * The board of the original game: 6 rows, 7 columns, two black tiles and a full row of pieces for each player
+     */
+    public static final BoardSpec STANDARD = of(BOARD_HEIGHT, BOARD_WIDTH, new Position(3, 2), new Position(2, 4));
+
+    private final int height;
+    private final int width;
+    private final int cellCount;
+    private final int[] blackCells;
+    private final int[] redStart;
+    private final int[] blueStart;
+    private final int maxMoves;
+    private final int maxPlies;
+
+    /**
+     * Cell each direction leads to from each cell, or -1 if it would leave the board,
+     * indexed by <code>cell * DIRECTIONS + ordinal</code>
+     */
+    final int[] redSteps;
+    final int[] blueSteps;
+
+    /**
+     * Same as <code>redSteps</code> and <code>blueSteps</code>, but the steps onto black tiles are -1 too
+     */
+    final int[] redDestinations;
+    final int[] blueDestinations;
+
+    /**
+     * Zobrist keys of a Player2 and a Player1 piece on each cell and of Player2 moving next,
+     * generated from a fixed seed so hashes are the same in every run
+     */
+    final long[] redKeys;
+    final long[] blueKeys;
+    final long redNextKey;
+
+    private final Position[] positions;
+
+    /**
+     * Constructor of BoardSpec
+     * Throws IllegalArgumentException if a position is off the board or used twice,
+     * or a player has no pieces or more than <code>MAX_PIECES</code>
+     */
+    public BoardSpec(int height, int width, List<Position> blackTiles, List<Position> redPieces, List<Position> bluePieces) {
+        if (height < 2 || width < 1 || (long) height * width > Integer.MAX_VALUE / DIRECTIONS) {
+            throw new IllegalArgumentException("Invalid board size: " + height + "x" + width);
+        }
+        if (redPieces.isEmpty() || bluePieces.isEmpty()
+                || redPieces.size() > MAX_PIECES || bluePieces.size() > MAX_PIECES) {
+            throw new IllegalArgumentException("Invalid piece count");
+        }
+        this.height = height;
+        this.width = width;
+        this.cellCount = height * width;
+        var seen = new HashSet<Position>();
+        this.blackCells = cells(blackTiles, seen);
+        this.redStart = cells(redPieces, seen);
+        this.blueStart = cells(bluePieces, seen);
+        Arrays.sort(blackCells);
+        this.maxMoves = Math.max(redStart.length, blueStart.length) * DIRECTIONS;
+        this.maxPlies = (height - 1) * (redStart.length + blueStart.length);
+
+        this.positions = new Position[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            positions[cell] = new Position(cell / width, cell % width);
+        }
+        this.redSteps = steps(RedDirection.values());
+        this.blueSteps = steps(BlueDirection.values());
+        this.redDestinations = destinations(redSteps);
+        this.blueDestinations = destinations(blueSteps);
+
+        this.redKeys = new long[cellCount];
+        this.blueKeys = new long[cellCount];
+        var random = new SplittableRandom(24);
+        for (int cell = 0; cell < cellCount; cell++) {
+            redKeys[cell] = random.nextLong();
+            blueKeys[cell] = random.nextLong();
+        }
+        this.redNextKey = random.nextLong();
+    }
+
+    /**
+     * Returns the spec of a <code>height</code> x <code>width</code> board with the given black tiles,
+     * Player2 fills the first row and Player1 the last one
+     */
+    public static BoardSpec of(int height, int width, Position... blackTiles) {
+        List<Position> redPieces = new ArrayList<>();
+        List<Position> bluePieces = new ArrayList<>();
+        for (int col = 0; col < width; col++) {
+            redPieces.add(new Position(0, col));
+            bluePieces.add(new Position(height - 1, col));
+        }
+        return new BoardSpec(height, width, List.of(blackTiles), redPieces, bluePieces);
+    }
+
+    private int[] cells(List<Position> list, HashSet<Position> seen) {
+        int[] cells = new int[list.size()];
+        for (int i = 0; i < cells.length; i++) {
+            var position = list.get(i);
+            if (!isOnBoard(position) || !seen.add(position)) {
+                throw new IllegalArgumentException("Invalid position: " + position);
+            }
+            cells[i] = cellOf(position);
+        }
+        return cells;
+    }
+
+    private int[] steps(Direction[] directions) {
+        int[] steps = new int[cellCount * DIRECTIONS];
+        for (int cell = 0; cell < cellCount; cell++) {
+            for (int ordinal = 0; ordinal < DIRECTIONS; ordinal++) {
+                int row = rowOf(cell) + directions[ordinal].getRowChange();
+                int col = colOf(cell) + directions[ordinal].getColChange();
+                boolean onBoard = row >= 0 && row < height && col >= 0 && col < width;
+                steps[cell * DIRECTIONS + ordinal] = onBoard ? cellOf(row, col) : -1;
+            }
+        }
+        return steps;
+    }
+
+    private int[] destinations(int[] steps) {
+        int[] destinations = steps.clone();
+        for (int i = 0; i < destinations.length; i++) {
+            if (destinations[i] >= 0 && isBlack(destinations[i])) {
+                destinations[i] = -1;
+            }
+        }
+        return destinations;
+    }
+
+    /**
+     * Returns the number of rows
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the number of columns
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the number of cells
+     */
+    public int getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Returns the maximum number of moves a player can have, the size of a sufficient move buffer
+     */
+    public int getMaxMoves() {
+        return maxMoves;
+    }
+
+    /**
+     * Returns the maximum length of a game, every piece can move forward at most <code>height - 1</code> times
+     */
+    public int getMaxPlies() {
+        return maxPlies;
+    }
+
+    /**
+     * Returns the cells of the black tiles in increasing order
+     */
+    public int[] getBlackCells() {
+        return blackCells.clone();
+    }
+
+    /**
+     * Returns the starting cells of Player2 pieces
+     */
+    public int[] getRedStart() {
+        return redStart.clone();
+    }
+
+    /**
+     * Returns the starting cells of Player1 pieces
+     */
+    public int[] getBlueStart() {
+        return blueStart.clone();
+    }
+
+    /**
+     * Returns the positions of the black tiles
+     */
+    public Position[] getBlackTiles() {
+        var tiles = new Position[blackCells.length];
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i] = positions[blackCells[i]];
+        }
+        return tiles;
+    }
+
+    /**
+     * Returns the black tiles as a bitboard, only boards of at most 64 cells have one
+     */
+    public long getBlackBoard() {
+        if (cellCount > Long.SIZE) {
+            throw new IllegalStateException("The board has more than 64 cells");
+        }
+        long board = 0;
+        for (var cell : blackCells) {
+            board |= 1L << cell;
+        }
+        return board;
+    }
+
+    /**
+     * Checks if <code>cell</code> is a black tile
+     */
+    public boolean isBlack(int cell) {
+        return Arrays.binarySearch(blackCells, cell) >= 0;
+    }
+
+    /**
+     * Checks if a <code>position</code> is located on the board
+     */
+    public boolean isOnBoard(Position position) {
+        return 0 <= position.row() && position.row() < height && 0 <= position.col() && position.col() < width;
+    }
+
+    /**
+     * Returns the cell of given <code>row</code> and <code>col</code>
+     */
+    public int cellOf(int row, int col) {
+        return row * width + col;
+    }
+
+    /**
+     * Returns the cell of given <code>position</code>
+     */
+    public int cellOf(Position position) {
+        return cellOf(position.row(), position.col());
+    }
+
+    /**
+     * Returns the row of a <code>cell</code>
+     */
+    public int rowOf(int cell) {
+        return cell / width;
+    }
+
+    /**
+     * Returns the column of a <code>cell</code>
+     */
+    public int colOf(int cell) {
+        return cell % width;
+    }
+
+    /**
+     * Returns the Position of a <code>cell</code>, the same instance every time
+     */
+    public Position positionOf(int cell) {
+        return positions[cell];
+    }
+
+    /**
+     * Returns the cell <code>direction</code> leads to from <code>cell</code>,
+     * or -1 if it would leave the board
+     */
+    public int targetOf(int cell, Direction direction) {
+        if (direction instanceof RedDirection redDirection) {
+            return redSteps[cell * DIRECTIONS + redDirection.ordinal()];
+        }
+        return blueSteps[cell * DIRECTIONS + ((BlueDirection) direction).ordinal()];
+    }
+
+    /**
+     * Checks if <code>o</code> is a spec of the same size, black tiles and starting layout
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof BoardSpec other && height == other.height && width == other.width
+                && Arrays.equals(blackCells, other.blackCells)
+                && Arrays.equals(redStart, other.redStart) && Arrays.equals(blueStart, other.blueStart);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * height + width;
+        result = 31 * result + Arrays.hashCode(blackCells);
+        result = 31 * result + Arrays.hashCode(redStart);
+        return 31 * result + Arrays.hashCode(blueStart);
+    }
+
+    /**
+     * Returns a String of the spec
+     */
+    public String toString() {
+        return String.format("%dx%d, %d black tiles, %d+%d pieces",
+                height, width, blackCells.length, redStart.length, blueStart.length);
+    }
+}
@@ -0,0 +1,657 @@
+package boardgame.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static boardgame.model.BoardGameModel.BOARD_HEIGHT;
+import static boardgame.model.BoardGameModel.BOARD_WIDTH;
+import static boardgame.model.BoardSpec.DIRECTIONS;
+
+public class BoardState implements GameState {
+    /**
+     * Primitive (bitboard) representation of a game state on a board of at most 64 cells
+     * A cell is the index of a position on the board: <code>row * width + col</code>,
+     * bit <code>cell</code> of a board is set if the cell is occupied
+     * The geometry of the variant is read from its <code>BoardSpec</code> once, into final fields.
+     * The static constants and methods describe the standard board.
+     */
+
+    /**
+     * Number of cells on the standard board
+     */
+    public static final int CELL_COUNT = BOARD_HEIGHT * BOARD_WIDTH;
+
+    /**
+     * Maximum number of moves a player can have on the standard board, the size of a sufficient move buffer
+     */
+    public static final int MAX_MOVES = BOARD_WIDTH * 3;
+
+    /**
+     * Maximum length of a game on the standard board, every piece can move forward at most
+     * <code>BOARD_HEIGHT - 1</code> times
+     */
+    public static final int MAX_PLIES = (BOARD_HEIGHT - 1) * BOARD_WIDTH * 2;
+
+    /**
+     * Layout of an undo record: the move, the index of the captured piece plus one,
+     * the player who moved and the player who was next before the move
+     */
+    private static final int UNDO_CAPTURED_SHIFT = 8;
+    private static final int UNDO_RED_MOVED = 1 << 16;
+    private static final int UNDO_RED_WAS_NEXT = 1 << 17;
+
+    private final BoardSpec spec;
+
+    /**
+     * Geometry of the board: the width, the masks of the whole board, the first and the last column,
+     * and the tables of <code>BoardSpec</code>
+     */
+    private final int width;
+    private final long boardMask;
+    private final long firstColMask;
+    private final long lastColMask;
+    private final int[] redSteps;
+    private final int[] blueSteps;
+    private final int[] redDestinations;
+    private final int[] blueDestinations;
+    private final long[] redKeys;
+    private final long[] blueKeys;
+    private final long redNextKey;
+
+    /**
+     * Occupancy of each players pieces and the black tiles
+     */
+    private long redBoard;
+    private long blueBoard;
+    private final long blackBoard;
+
+    /**
+     * Cells of each players pieces, indexed the same way as the pieces of <code>BoardGameModel</code>
+     */
+    private final int[] redCells;
+    private final int[] blueCells;
+    private int redCount;
+    private int blueCount;
+
+    /**
+     * Index of the piece on each cell, the player is told by the occupancy
+     * Entries of empty cells are stale, they are never read
+     */
+    private final byte[] pieceNumbers;
+
+    /**
+     * The player who moves next, Player1 starts the game
+     */
+    private PieceType nextPlayer = PieceType.BLUE;
+
+    /**
+     * Zobrist hash of the state, updated on every move
+     */
+    private long hash;
+
+    /**
+     * Undo records of the moves made so far
+     */
+    private final int[] undoStack;
+    private int ply;
+
+    /**
+     * Constructor of BoardState, the starting state of <code>spec</code>
+     * Throws IllegalArgumentException if the board has more than 64 cells
+     */
+    public BoardState(BoardSpec spec) {
+        this(spec, spec.getRedStart(), spec.getBlueStart());
+    }
+
+    /**
+     * Constructor of BoardState, the pieces on <code>redCells</code> and <code>blueCells</code>
+     * of the board of <code>spec</code>
+     * Throws IllegalArgumentException if the board has more than 64 cells
+     */
+    public BoardState(BoardSpec spec, int[] redCells, int[] blueCells) {
+        if (spec.getCellCount() > Long.SIZE) {
+            throw new IllegalArgumentException("The board has more than 64 cells: " + spec);
+        }
+        this.spec = spec;
+        this.width = spec.getWidth();
+        this.boardMask = spec.getCellCount() == Long.SIZE ? -1L : (1L << spec.getCellCount()) - 1;
+        this.firstColMask = columnMask(spec, 0);
+        this.lastColMask = columnMask(spec, width - 1);
+        this.redSteps = spec.redSteps;
+        this.blueSteps = spec.blueSteps;
+        this.redDestinations = spec.redDestinations;
+        this.blueDestinations = spec.blueDestinations;
+        this.redKeys = spec.redKeys;
+        this.blueKeys = spec.blueKeys;
+        this.redNextKey = spec.redNextKey;
+        this.blackBoard = spec.getBlackBoard();
+        this.redCells = redCells.clone();
+        this.blueCells = blueCells.clone();
+        this.redCount = redCells.length;
+        this.blueCount = blueCells.length;
+        this.undoStack = new int[spec.getMaxPlies()];
+        this.pieceNumbers = new byte[spec.getCellCount()];
+        renumber(this.redCells, 0, redCount);
+        renumber(this.blueCells, 0, blueCount);
+        for (var cell : redCells) {
+            redBoard |= 1L << cell;
+        }
+        for (var cell : blueCells) {
+            blueBoard |= 1L << cell;
+        }
+        this.hash = computeHash();
+    }
+
+    /**
+     * Constructor of BoardState on the standard board
+     * <code>blackBoard</code> contains the black tiles, <code>redCells</code> and <code>blueCells</code> the pieces
+     */
+    public BoardState(long blackBoard, int[] redCells, int[] blueCells) {
+        this(standardSpec(blackBoard, redCells, blueCells), redCells, blueCells);
+    }
+
+    /**
+     * Copy constructor of BoardState
+     */
+    public BoardState(BoardState other) {
+        this.spec = other.spec;
+        this.width = other.width;
+        this.boardMask = other.boardMask;
+        this.firstColMask = other.firstColMask;
+        this.lastColMask = other.lastColMask;
+        this.redSteps = other.redSteps;
+        this.blueSteps = other.blueSteps;
+        this.redDestinations = other.redDestinations;
+        this.blueDestinations = other.blueDestinations;
+        this.redKeys = other.redKeys;
+        this.blueKeys = other.blueKeys;
+        this.redNextKey = other.redNextKey;
+        this.blackBoard = other.blackBoard;
+        this.redBoard = other.redBoard;
+        this.blueBoard = other.blueBoard;
+        this.redCells = other.redCells.clone();
+        this.blueCells = other.blueCells.clone();
+        this.redCount = other.redCount;
+        this.blueCount = other.blueCount;
+        this.pieceNumbers = other.pieceNumbers.clone();
+        this.nextPlayer = other.nextPlayer;
+        this.undoStack = other.undoStack.clone();
+        this.ply = other.ply;
+        this.hash = other.hash;
+    }
+
+    @Override
+    public BoardState copy() {
+        return new BoardState(this);
+    }
+
+    /**
+     * Returns the spec of the standard board with the black tiles of <code>blackBoard</code>
+     */
+    private static BoardSpec standardSpec(long blackBoard, int[] redCells, int[] blueCells) {
+        if (blackBoard == BoardSpec.STANDARD.getBlackBoard()) {
+            return BoardSpec.STANDARD;
+        }
+        var blackTiles = new ArrayList<Position>();
+        for (long board = blackBoard; board != 0; board &= board - 1) {
+            blackTiles.add(positionOf(Long.numberOfTrailingZeros(board)));
+        }
+        return new BoardSpec(BOARD_HEIGHT, BOARD_WIDTH, blackTiles, positionsOf(redCells), positionsOf(blueCells));
+    }
+
+    private static List<Position> positionsOf(int[] cells) {
+        var positions = new ArrayList<Position>(cells.length);
+        for (var cell : cells) {
+            positions.add(positionOf(cell));
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the mask of a column
+     */
+    private static long columnMask(BoardSpec spec, int col) {
+        long mask = 0;
+        for (int row = 0; row < spec.getHeight(); row++) {
+            mask |= 1L << spec.cellOf(row, col);
+        }
+        return mask;
+    }
+
+    /**
+     * Returns the cell of given <code>row</code> and <code>col</code> on the standard board
+     */
+    public static int cellOf(int row, int col) {
+        return row * BOARD_WIDTH + col;
+    }
+
+    /**
+     * Returns the cell of given <code>position</code> on the standard board
+     */
+    public static int cellOf(Position position) {
+        return cellOf(position.row(), position.col());
+    }
+
+    /**
+     * Returns the row of a <code>cell</code> of the standard board
+     */
+    public static int rowOf(int cell) {
+        return cell / BOARD_WIDTH;
+    }
+
+    /**
+     * Returns the column of a <code>cell</code> of the standard board
+     */
+    public static int colOf(int cell) {
+        return cell % BOARD_WIDTH;
+    }
+
+    /**
+     * Returns the Position of a <code>cell</code> of the standard board
+     */
+    public static Position positionOf(int cell) {
+        return BoardSpec.STANDARD.positionOf(cell);
+    }
+
+    /**
+     * Returns the cell <code>direction</code> leads to from <code>cell</code> on the standard board,
+     * or -1 if it would leave the board
+     */
+    public static int targetOf(int cell, Direction direction) {
+        return BoardSpec.STANDARD.targetOf(cell, direction);
+    }
+
+    @Override
+    public BoardSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * Returns the occupancy of Player2 pieces
+     */
+    public long getRedBoard() {
+        return redBoard;
+    }
+
+    /**
+     * Returns the occupancy of Player1 pieces
+     */
+    public long getBlueBoard() {
+        return blueBoard;
+    }
+
+    /**
+     * Returns the occupancy of black tiles
+     */
+    public long getBlackBoard() {
+        return blackBoard;
+    }
+
+    @Override
+    public PieceType getNextPlayer() {
+        return nextPlayer;
+    }
+
+    @Override
+    public void setNextPlayer(PieceType nextPlayer) {
+        if (this.nextPlayer != nextPlayer) {
+            hash ^= redNextKey;
+        }
+        this.nextPlayer = nextPlayer;
+    }
+
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Computes the Zobrist hash from scratch
+     */
+    public long computeHash() {
+        long result = nextPlayer == PieceType.RED ? redNextKey : 0;
+        for (long board = redBoard; board != 0; board &= board - 1) {
+            result ^= redKeys[Long.numberOfTrailingZeros(board)];
+        }
+        for (long board = blueBoard; board != 0; board &= board - 1) {
+            result ^= blueKeys[Long.numberOfTrailingZeros(board)];
+        }
+        return result;
+    }
+
+    @Override
+    public int getPly() {
+        return ply;
+    }
+
+    @Override
+    public int getRedCount() {
+        return redCount;
+    }
+
+    @Override
+    public int getBlueCount() {
+        return blueCount;
+    }
+
+    @Override
+    public int getRedCell(int pieceNumber) {
+        return redCells[pieceNumber];
+    }
+
+    @Override
+    public int getBlueCell(int pieceNumber) {
+        return blueCells[pieceNumber];
+    }
+
+    @Override
+    public boolean isRed(int cell) {
+        return (redBoard >>> cell & 1L) != 0;
+    }
+
+    @Override
+    public boolean isBlue(int cell) {
+        return (blueBoard >>> cell & 1L) != 0;
+    }
+
+    @Override
+    public boolean isBlack(int cell) {
+        return (blackBoard >>> cell & 1L) != 0;
+    }
+
+    @Override
+    public int getRedPieceNumber(int cell) {
+        return isRed(cell) ? pieceNumbers[cell] : -1;
+    }
+
+    @Override
+    public int getBluePieceNumber(int cell) {
+        return isBlue(cell) ? pieceNumbers[cell] : -1;
+    }
+
+    @Override
+    public boolean isValidRedMove(int pieceNumber, RedDirection direction) {
+        int target = redDestinations[redCells[pieceNumber] * DIRECTIONS + direction.ordinal()];
+        if (target < 0 || isRed(target)) {
+            return false;
+        }
+        return direction != RedDirection.DOWN || !isBlue(target);
+    }
+
+    @Override
+    public boolean isValidBlueMove(int pieceNumber, BlueDirection direction) {
+        int target = blueDestinations[blueCells[pieceNumber] * DIRECTIONS + direction.ordinal()];
+        if (target < 0 || isBlue(target)) {
+            return false;
+        }
+        return direction != BlueDirection.UP || !isRed(target);
+    }
+
+    /**
+     * Returns the cells Player2 pieces can move to, regardless of which piece moves
+     */
+    public long getRedTargets() {
+        long free = ~(redBoard | blackBoard) & boardMask;
+        return (redBoard << width & free & ~blueBoard)
+                | ((redBoard & ~lastColMask) << (width + 1) & free)
+                | ((redBoard & ~firstColMask) << (width - 1) & free);
+    }
+
+    /**
+     * Returns the cells Player1 pieces can move to, regardless of which piece moves
+     */
+    public long getBlueTargets() {
+        long free = ~(blueBoard | blackBoard) & boardMask;
+        return (blueBoard >>> width & free & ~redBoard)
+                | ((blueBoard & ~firstColMask) >>> (width + 1) & free)
+                | ((blueBoard & ~lastColMask) >>> (width - 1) & free);
+    }
+
+    @Override
+    public int getRedMobility() {
+        return Long.bitCount(getRedTargets());
+    }
+
+    @Override
+    public int getBlueMobility() {
+        return Long.bitCount(getBlueTargets());
+    }
+
+    @Override
+    public boolean hasRedMoves() {
+        return getRedTargets() != 0;
+    }
+
+    @Override
+    public boolean hasBlueMoves() {
+        return getBlueTargets() != 0;
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return !hasRedMoves() || !hasBlueMoves();
+    }
+
+    @Override
+    public PieceType getWinner() {
+        if (!hasRedMoves()) {
+            return PieceType.BLUE;
+        }
+        if (!hasBlueMoves()) {
+            return PieceType.RED;
+        }
+        return null;
+    }
+
+    @Override
+    public int generateMoves(int[] moves) {
+        return nextPlayer == PieceType.RED ? generateRedMoves(moves) : generateBlueMoves(moves);
+    }
+
+    @Override
+    public int generateRedMoves(int[] moves) {
+        // The free cells are shifted back by each step, giving the cells a piece can move from
+        long free = ~(redBoard | blackBoard) & boardMask;
+        long downRight = redBoard & ~lastColMask & free >>> (width + 1);
+        long down = redBoard & (free & ~blueBoard) >>> width;
+        long downLeft = redBoard & ~firstColMask & free >>> (width - 1);
+        int count = 0;
+        for (int i = 0; i < redCount; i++) {
+            int cell = redCells[i];
+            if ((downRight >>> cell & 1L) != 0) {
+                moves[count++] = Move.of(i, 0);
+            }
+            if ((down >>> cell & 1L) != 0) {
+                moves[count++] = Move.of(i, 1);
+            }
+            if ((downLeft >>> cell & 1L) != 0) {
+                moves[count++] = Move.of(i, 2);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int generateBlueMoves(int[] moves) {
+        long free = ~(blueBoard | blackBoard) & boardMask;
+        long upLeft = blueBoard & ~firstColMask & free << (width + 1);
+        long up = blueBoard & (free & ~redBoard) << width;
+        long upRight = blueBoard & ~lastColMask & free << (width - 1);
+        int count = 0;
+        for (int i = 0; i < blueCount; i++) {
+            int cell = blueCells[i];
+            if ((upLeft >>> cell & 1L) != 0) {
+                moves[count++] = Move.of(i, 0);
+            }
+            if ((up >>> cell & 1L) != 0) {
+                moves[count++] = Move.of(i, 1);
+            }
+            if ((upRight >>> cell & 1L) != 0) {
+                moves[count++] = Move.of(i, 2);
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int redMove(int pieceNumber, RedDirection direction) {
+        return redMove(pieceNumber, direction.ordinal());
+    }
+
+    private int redMove(int pieceNumber, int ordinal) {
+        int from = redCells[pieceNumber];
+        int to = redSteps[from * DIRECTIONS + ordinal];
+        redCells[pieceNumber] = to;
+        redBoard ^= 1L << from | 1L << to;
+        hash ^= redKeys[from] ^ redKeys[to];
+        int captured = getBluePieceNumber(to);
+        if (captured >= 0) {
+            blueBoard ^= 1L << to;
+            hash ^= blueKeys[to];
+            blueCount = remove(blueCells, blueCount, captured);
+        }
+        pieceNumbers[to] = (byte) pieceNumber;
+        pushUndo(Move.of(pieceNumber, ordinal), captured, true);
+        setNextPlayer(PieceType.BLUE);
+        return captured;
+    }
+
+    @Override
+    public int blueMove(int pieceNumber, BlueDirection direction) {
+        return blueMove(pieceNumber, direction.ordinal());
+    }
+
+    private int blueMove(int pieceNumber, int ordinal) {
+        int from = blueCells[pieceNumber];
+        int to = blueSteps[from * DIRECTIONS + ordinal];
+        blueCells[pieceNumber] = to;
+        blueBoard ^= 1L << from | 1L << to;
+        hash ^= blueKeys[from] ^ blueKeys[to];
+        int captured = getRedPieceNumber(to);
+        if (captured >= 0) {
+            redBoard ^= 1L << to;
+            hash ^= redKeys[to];
+            redCount = remove(redCells, redCount, captured);
+        }
+        pieceNumbers[to] = (byte) pieceNumber;
+        pushUndo(Move.of(pieceNumber, ordinal), captured, false);
+        setNextPlayer(PieceType.RED);
+        return captured;
+    }
+
+    @Override
+    public int getTarget(int move) {
+        int pieceNumber = Move.pieceNumber(move);
+        int ordinal = Move.directionOrdinal(move);
+        if (nextPlayer == PieceType.RED) {
+            return redSteps[redCells[pieceNumber] * DIRECTIONS + ordinal];
+        }
+        return blueSteps[blueCells[pieceNumber] * DIRECTIONS + ordinal];
+    }
+
+    @Override
+    public boolean isCapture(int move) {
+        int target = getTarget(move);
+        return nextPlayer == PieceType.RED ? isBlue(target) : isRed(target);
+    }
+
+    @Override
+    public int makeMove(int move) {
+        if (nextPlayer == PieceType.RED) {
+            return redMove(Move.pieceNumber(move), Move.directionOrdinal(move));
+        }
+        return blueMove(Move.pieceNumber(move), Move.directionOrdinal(move));
+    }
+
+    @Override
+    public void unmakeMove() {
+        if (ply == 0) {
+            throw new IllegalStateException();
+        }
+        int record = undoStack[--ply];
+        int move = record & 0xFF;
+        int captured = (record >>> UNDO_CAPTURED_SHIFT & 0xFF) - 1;
+        int pieceNumber = Move.pieceNumber(move);
+        int ordinal = Move.directionOrdinal(move);
+        if ((record & UNDO_RED_MOVED) != 0) {
+            int to = redCells[pieceNumber];
+            int from = to - width - 1 + ordinal;
+            redCells[pieceNumber] = from;
+            pieceNumbers[from] = (byte) pieceNumber;
+            redBoard ^= 1L << from | 1L << to;
+            hash ^= redKeys[from] ^ redKeys[to];
+            if (captured >= 0) {
+                blueBoard |= 1L << to;
+                hash ^= blueKeys[to];
+                blueCount = insert(blueCells, blueCount, captured, to);
+            }
+        } else {
+            int to = blueCells[pieceNumber];
+            int from = to + width + 1 - ordinal;
+            blueCells[pieceNumber] = from;
+            pieceNumbers[from] = (byte) pieceNumber;
+            blueBoard ^= 1L << from | 1L << to;
+            hash ^= blueKeys[from] ^ blueKeys[to];
+            if (captured >= 0) {
+                redBoard |= 1L << to;
+                hash ^= redKeys[to];
+                redCount = insert(redCells, redCount, captured, to);
+            }
+        }
+        setNextPlayer((record & UNDO_RED_WAS_NEXT) != 0 ? PieceType.RED : PieceType.BLUE);
+    }
+
+    @Override
+    public int getLastMove() {
+        return ply == 0 ? Move.NONE : undoStack[ply - 1] & 0xFF;
+    }
+
+    @Override
+    public PieceType getLastMover() {
+        return ply == 0 ? null : (undoStack[ply - 1] & UNDO_RED_MOVED) != 0 ? PieceType.RED : PieceType.BLUE;
+    }
+
+    @Override
+    public int getLastCaptured() {
+        return ply == 0 ? -1 : (undoStack[ply - 1] >>> UNDO_CAPTURED_SHIFT & 0xFF) - 1;
+    }
+
+    private void pushUndo(int move, int captured, boolean redMoved) {
+        int record = move | (captured + 1) << UNDO_CAPTURED_SHIFT;
+        if (redMoved) {
+            record |= UNDO_RED_MOVED;
+        }
+        if (nextPlayer == PieceType.RED) {
+            record |= UNDO_RED_WAS_NEXT;
+        }
+        undoStack[ply++] = record;
+    }
+
+    /**
+     * Removes the element at <code>index</code> keeping the order of the rest, returns the new count
+     */
+    private int remove(int[] cells, int count, int index) {
+        System.arraycopy(cells, index + 1, cells, index, count - index - 1);
+        renumber(cells, index, count - 1);
+        return count - 1;
+    }
+
+    /**
+     * Inserts <code>cell</code> at <code>index</code> moving the rest forward, returns the new count
+     */
+    private int insert(int[] cells, int count, int index, int cell) {
+        System.arraycopy(cells, index, cells, index + 1, count - index);
+        cells[index] = cell;
+        renumber(cells, index, count + 1);
+        return count + 1;
+    }
+
+    /**
+     * Updates the piece index of the cells of the pieces from <code>from</code> to <code>to</code>
+     */
+    private void renumber(int[] cells, int from, int to) {
+        for (int i = from; i < to; i++) {
+            pieceNumbers[cells[i]] = (byte) i;
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package boardgame.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+public class GameArchive {
+    /**
+     * Memory-mapped archive of finished games, written by <code>GameArchiveWriter</code>
+     * The file has a header (magic number, version) followed by the games. Every game is a record:
+     * its length, the board layout (height, width, piece and black tile counts, then the cells of the
+     * black tiles, Player2 and Player1 pieces), the player who moved first, the names of Player1 and Player2,
+     * and one byte per move (see <code>Move</code>). Cells are stored in 2 bytes, or in 4 on boards of more than
+     * 65536 cells. Every number is big-endian, counts and name lengths are unsigned.
+     * A cursor reads the records in place, only the fields asked for are decoded.
+     */
+
+    static final int MAGIC = 0x47414d45;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+
+    /**
+     * Size of the fixed fields of the layout: height, width, Player2, Player1 and black tile counts
+     */
+    static final int LAYOUT_SIZE = 8;
+
+    /**
+     * Length of a record without cells, names and moves
+     */
+    static final int MIN_RECORD_LENGTH = LAYOUT_SIZE + 1 + 2 * Short.BYTES;
+
+    /**
+     * Maximum of the 2-byte fields: height, width, black tile count and name lengths
+     */
+    static final int MAX_FIELD = 0xFFFF;
+
+    private final MappedByteBuffer buffer;
+
+    private GameArchive(MappedByteBuffer buffer) {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not a game archive");
+        }
+        this.buffer = buffer;
+    }
+
+    /**
+     * Opens the archive at <code>path</code> for reading, the games written later are not seen
+     */
+    public static GameArchive open(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new GameArchive(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    static boolean isWide(int height, int width) {
+        return (long) height * width > MAX_FIELD + 1;
+    }
+
+    /**
+     * Returns the size of the archive in bytes
+     */
+    public int getSize() {
+        return buffer.limit();
+    }
+
+    /**
+     * Returns a new cursor before the first game
+     * A cursor is not thread-safe, but any number of them can read the archive at the same time
+     */
+    public Cursor cursor() {
+        return new Cursor(buffer.duplicate());
+    }
+
+    public static final class Cursor {
+        /**
+         * Position of a cursor in the archive, the accessors read the game it is at
+         * The spec of the last layout read is kept, so the games of the same board variant share one spec.
+         */
+
+        private final ByteBuffer buffer;
+        private int next = HEADER_SIZE;
+        private int start = -1;
+        private int end;
+        private int layoutLength;
+        private int namesOffset;
+        private int movesOffset;
+        private ByteBuffer lastLayout;
+        private BoardSpec lastSpec;
+
+        private Cursor(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        /**
+         * Moves to the next game, returns false if there is none
+         * A record cut off by the end of the archive is not a game
+         */
+        public boolean next() {
+            int limit = buffer.limit();
+            if (next > limit - Integer.BYTES) {
+                return false;
+            }
+            int length = buffer.getInt(next);
+            if (length < MIN_RECORD_LENGTH || length > limit - next - Integer.BYTES) {
+                return false;
+            }
+            start = next + Integer.BYTES;
+            end = start + length;
+            next = end;
+            int cells = Byte.toUnsignedInt(buffer.get(start + 4)) + Byte.toUnsignedInt(buffer.get(start + 5))
+                    + Short.toUnsignedInt(buffer.getShort(start + 6));
+            int cellSize = isWide(getHeight(), getWidth()) ? Integer.BYTES : Short.BYTES;
+            layoutLength = LAYOUT_SIZE + cells * cellSize;
+            namesOffset = start + layoutLength + 1;
+            int name2Offset = namesOffset + Short.BYTES + Short.toUnsignedInt(buffer.getShort(namesOffset));
+            movesOffset = name2Offset + Short.BYTES + Short.toUnsignedInt(buffer.getShort(name2Offset));
+            if (movesOffset > end) {
+                throw new IllegalStateException("Corrupt game record at " + (start - Integer.BYTES));
+            }
+            return true;
+        }
+
+        private void checkGame() {
+            if (start < 0) {
+                throw new IllegalStateException("The cursor is not at a game");
+            }
+        }
+
+        private int getHeight() {
+            return Short.toUnsignedInt(buffer.getShort(start));
+        }
+
+        private int getWidth() {
+            return Short.toUnsignedInt(buffer.getShort(start + 2));
+        }
+
+        /**
+         * Returns the board variant of the game
+         */
+        public BoardSpec getSpec() {
+            checkGame();
+            var layout = buffer.slice(start, layoutLength);
+            if (!layout.equals(lastLayout)) {
+                lastSpec = decodeSpec();
+                lastLayout = ByteBuffer.allocate(layoutLength).put(layout).flip();
+            }
+            return lastSpec;
+        }
+
+        private BoardSpec decodeSpec() {
+            int height = getHeight();
+            int width = getWidth();
+            boolean wideCells = isWide(height, width);
+            int offset = start + LAYOUT_SIZE;
+            var blackTiles = positions(Short.toUnsignedInt(buffer.getShort(start + 6)), offset, width, wideCells);
+            offset += blackTiles.size() * (wideCells ? Integer.BYTES : Short.BYTES);
+            var redPieces = positions(Byte.toUnsignedInt(buffer.get(start + 4)), offset, width, wideCells);
+            offset += redPieces.size() * (wideCells ? Integer.BYTES : Short.BYTES);
+            var bluePieces = positions(Byte.toUnsignedInt(buffer.get(start + 5)), offset, width, wideCells);
+            return new BoardSpec(height, width, blackTiles, redPieces, bluePieces);
+        }
+
+        private List<Position> positions(int count, int offset, int width, boolean wideCells) {
+            List<Position> positions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int cell = wideCells ? buffer.getInt(offset + i * Integer.BYTES)
+                        : Short.toUnsignedInt(buffer.getShort(offset + i * Short.BYTES));
+                positions.add(new Position(cell / width, cell % width));
+            }
+            return positions;
+        }
+
+        /**
+         * Returns the player who made the first move
+         */
+        public PieceType getFirstPlayer() {
+            checkGame();
+            return PieceType.values()[buffer.get(start + layoutLength)];
+        }
+
+        /**
+         * Returns the name of the Player1 player
+         */
+        public String getPlayer1Name() {
+            checkGame();
+            return name(namesOffset);
+        }
+
+        /**
+         * Returns the name of the Player2 player
+         */
+        public String getPlayer2Name() {
+            checkGame();
+            return name(namesOffset + Short.BYTES + Short.toUnsignedInt(buffer.getShort(namesOffset)));
+        }
+
+        private String name(int offset) {
+            int length = Short.toUnsignedInt(buffer.getShort(offset));
+            return StandardCharsets.UTF_8.decode(buffer.slice(offset + Short.BYTES, length)).toString();
+        }
+
+        /**
+         * Returns the number of moves of the game
+         */
+        public int getMoveCount() {
+            checkGame();
+            return end - movesOffset;
+        }
+
+        /**
+         * Returns the move at <code>index</code> (see <code>Move</code>)
+         */
+        public int getMove(int index) {
+            checkGame();
+            return Byte.toUnsignedInt(buffer.get(movesOffset + Objects.checkIndex(index, end - movesOffset)));
+        }
+
+        /**
+         * Returns a read-only view of the moves in the archive, one byte per move
+         */
+        public ByteBuffer getMoves() {
+            checkGame();
+            return buffer.slice(movesOffset, end - movesOffset).asReadOnlyBuffer();
+        }
+
+        /**
+         * Makes every move of the game in <code>state</code>, which must be the starting state of its spec
+         * The moves are not checked, it is the fast replay of trusted archives. Returns <code>state</code>
+         */
+        public GameState replay(GameState state) {
+            checkGame();
+            state.setNextPlayer(getFirstPlayer());
+            for (int offset = movesOffset; offset < end; offset++) {
+                state.makeMove(Byte.toUnsignedInt(buffer.get(offset)));
+            }
+            return state;
+        }
+
+        /**
+         * Returns a new model of the game after all of its moves
+         * Throws IllegalArgumentException if a move is not valid
+         */
+        public BoardGameModel replay() {
+            checkGame();
+            var model = new BoardGameModel(getSpec());
+            model.getState().setNextPlayer(getFirstPlayer());
+            for (int offset = movesOffset; offset < end; offset++) {
+                model.makeMove(Byte.toUnsignedInt(buffer.get(offset)));
+            }
+            return model;
+        }
+    }
+}
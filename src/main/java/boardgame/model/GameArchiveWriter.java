@@ -0,0 +1,148 @@
+package boardgame.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static boardgame.model.GameArchive.*;
+
+public class GameArchiveWriter implements Closeable {
+    /**
+     * Appends finished games to an archive read by <code>GameArchive</code>
+     * A record is written with a single positioned write at the end of the archive. A record left
+     * unfinished when the program stopped is cut off the next time the archive is opened for writing.
+     * Finding it walks the record lengths in the mapped file, so a writer is meant to be opened once
+     * and kept open, as the application does.
+     */
+
+    private final FileChannel channel;
+    private ByteBuffer record = ByteBuffer.allocate(256);
+    private long size;
+
+    private GameArchiveWriter(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        if (size == 0) {
+            var header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip();
+            write(header);
+            return;
+        }
+        if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+            throw new IOException("Not a game archive");
+        }
+        var mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (mapped.getInt(0) != MAGIC || mapped.getInt(4) != VERSION) {
+            throw new IOException("Not a game archive");
+        }
+        long end = HEADER_SIZE;
+        while (end + Integer.BYTES <= size) {
+            int length = mapped.getInt((int) end);
+            long next = end + Integer.BYTES + length;
+            if (length < MIN_RECORD_LENGTH || next > size) {
+                break;
+            }
+            end = next;
+        }
+        if (end < size) {
+            channel.truncate(end);
+            size = end;
+        }
+    }
+
+    /**
+     * Opens the archive at <code>path</code> for appending, creating it if it does not exist
+     */
+    public static GameArchiveWriter open(Path path) throws IOException {
+        var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            return new GameArchiveWriter(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends the game of <code>state</code>, every move from its start that can be taken back
+     * <code>player1</code> is the name of the Player1 player, <code>player2</code> of the Player2 player
+     */
+    public void write(String player1, String player2, GameState state) throws IOException {
+        var start = state.copy();
+        int[] moves = new int[start.getPly()];
+        for (int i = moves.length - 1; i >= 0; i--) {
+            moves[i] = start.getLastMove();
+            start.unmakeMove();
+        }
+        write(player1, player2, state.getSpec(), start.getNextPlayer(), moves, moves.length);
+    }
+
+    /**
+     * Appends a game of the board variant <code>spec</code> started by <code>firstPlayer</code>,
+     * made of the first <code>moveCount</code> <code>moves</code>
+     * Throws IllegalArgumentException if the board or a name does not fit in the fields of the record
+     */
+    public synchronized void write(String player1, String player2, BoardSpec spec, PieceType firstPlayer,
+                                   int[] moves, int moveCount) throws IOException {
+        byte[] name1 = player1.getBytes(StandardCharsets.UTF_8);
+        byte[] name2 = player2.getBytes(StandardCharsets.UTF_8);
+        int[] blackCells = spec.getBlackCells();
+        int[] redStart = spec.getRedStart();
+        int[] blueStart = spec.getBlueStart();
+        if (spec.getHeight() > MAX_FIELD || spec.getWidth() > MAX_FIELD || blackCells.length > MAX_FIELD
+                || name1.length > MAX_FIELD || name2.length > MAX_FIELD) {
+            throw new IllegalArgumentException("The game does not fit in a record");
+        }
+        boolean wideCells = isWide(spec.getHeight(), spec.getWidth());
+        int cellCount = blackCells.length + redStart.length + blueStart.length;
+        int length = LAYOUT_SIZE + cellCount * (wideCells ? Integer.BYTES : Short.BYTES)
+                + 1 + Short.BYTES + name1.length + Short.BYTES + name2.length + moveCount;
+        if (size + Integer.BYTES + length > Integer.MAX_VALUE) {
+            throw new IOException("The archive is full, games must be written to a new one");
+        }
+        if (record.capacity() < Integer.BYTES + length) {
+            record = ByteBuffer.allocate(Integer.highestOneBit(Integer.BYTES + length) << 1);
+        }
+        record.clear()
+                .putInt(length)
+                .putShort((short) spec.getHeight())
+                .putShort((short) spec.getWidth())
+                .put((byte) redStart.length)
+                .put((byte) blueStart.length)
+                .putShort((short) blackCells.length);
+        putCells(blackCells, wideCells);
+        putCells(redStart, wideCells);
+        putCells(blueStart, wideCells);
+        record.put((byte) firstPlayer.ordinal())
+                .putShort((short) name1.length).put(name1)
+                .putShort((short) name2.length).put(name2);
+        for (int i = 0; i < moveCount; i++) {
+            record.put((byte) moves[i]);
+        }
+        write(record.flip());
+    }
+
+    private void putCells(int[] cells, boolean wideCells) {
+        for (int cell : cells) {
+            if (wideCells) {
+                record.putInt(cell);
+            } else {
+                record.putShort((short) cell);
+            }
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            size += channel.write(buffer, size);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,202 @@
+package boardgame.model;
+
+public interface GameState {
+    /**
+     * Primitive representation of a game state on a board of any <code>BoardSpec</code>
+     * Boards of at most 64 cells are represented by <code>BoardState</code> (one long per bitboard),
+     * larger ones by <code>WideBoardState</code> (arrays of longs). Each implementation is self-contained,
+     * so the code working on one of them is never shared with the other.
+     * Moves are encoded by <code>Move</code>, pieces are referred to by their index, cells are
+     * the cells of the spec.
+     */
+
+    /**
+     * Returns the starting state of <code>spec</code> in the representation suited to its size
+     */
+    static GameState of(BoardSpec spec) {
+        return spec.getCellCount() <= Long.SIZE ? new BoardState(spec) : new WideBoardState(spec);
+    }
+
+    /**
+     * Returns the board variant of the state
+     */
+    BoardSpec getSpec();
+
+    /**
+     * Returns an independent copy of the state, including the moves that can be taken back
+     */
+    GameState copy();
+
+    /**
+     * Returns the player who moves next
+     */
+    PieceType getNextPlayer();
+
+    /**
+     * Sets the player who moves next
+     */
+    void setNextPlayer(PieceType nextPlayer);
+
+    /**
+     * Returns the 64-bit Zobrist hash of the pieces and the player who moves next
+     */
+    long getHash();
+
+    /**
+     * Returns the number of moves that can be taken back
+     */
+    int getPly();
+
+    /**
+     * Returns the number of Player2 pieces
+     */
+    int getRedCount();
+
+    /**
+     * Returns the number of Player1 pieces
+     */
+    int getBlueCount();
+
+    /**
+     * Returns the cell of the Player2 piece at index <code>pieceNumber</code>
+     */
+    int getRedCell(int pieceNumber);
+
+    /**
+     * Returns the cell of the Player1 piece at index <code>pieceNumber</code>
+     */
+    int getBlueCell(int pieceNumber);
+
+    /**
+     * Checks if a Player2 piece is on <code>cell</code>
+     */
+    boolean isRed(int cell);
+
+    /**
+     * Checks if a Player1 piece is on <code>cell</code>
+     */
+    boolean isBlue(int cell);
+
+    /**
+     * Checks if <code>cell</code> is a black tile
+     */
+    boolean isBlack(int cell);
+
+    /**
+     * Returns the index of the Player2 piece on <code>cell</code>, or -1 if there is none
+     */
+    int getRedPieceNumber(int cell);
+
+    /**
+     * Returns the index of the Player1 piece on <code>cell</code>, or -1 if there is none
+     */
+    int getBluePieceNumber(int cell);
+
+    /**
+     * Checks if a Player2 pieces <code>direction</code> is a valid move
+     */
+    boolean isValidRedMove(int pieceNumber, RedDirection direction);
+
+    /**
+     * Checks if a Player1 pieces <code>direction</code> is a valid move
+     */
+    boolean isValidBlueMove(int pieceNumber, BlueDirection direction);
+
+    /**
+     * Returns the number of cells Player2 pieces can move to
+     */
+    int getRedMobility();
+
+    /**
+     * Returns the number of cells Player1 pieces can move to
+     */
+    int getBlueMobility();
+
+    /**
+     * Checks if Player2 has any valid move
+     */
+    boolean hasRedMoves();
+
+    /**
+     * Checks if Player1 has any valid move
+     */
+    boolean hasBlueMoves();
+
+    /**
+     * Checks if the game is over, that is one of the players can not move
+     */
+    boolean isGameOver();
+
+    /**
+     * Returns the winner of a finished game, or null if the game is not over
+     * If Player2 can not move Player1 wins, otherwise Player2 wins
+     */
+    PieceType getWinner();
+
+    /**
+     * Fills <code>moves</code> with the valid moves of the player who moves next, returns the number of moves
+     * <code>moves</code> must have at least <code>getSpec().getMaxMoves()</code> elements
+     */
+    int generateMoves(int[] moves);
+
+    /**
+     * Fills <code>moves</code> with all Player2 valid moves, ordered by piece and direction,
+     * returns the number of moves
+     */
+    int generateRedMoves(int[] moves);
+
+    /**
+     * Fills <code>moves</code> with all Player1 valid moves, ordered by piece and direction,
+     * returns the number of moves
+     */
+    int generateBlueMoves(int[] moves);
+
+    /**
+     * Moves a Player2 piece in the given <code>direction</code>, capturing the Player1 piece on the new cell
+     * Returns the index the captured piece had, or -1 if there was no capture
+     */
+    int redMove(int pieceNumber, RedDirection direction);
+
+    /**
+     * Moves a Player1 piece in the given <code>direction</code>, capturing the Player2 piece on the new cell
+     * Returns the index the captured piece had, or -1 if there was no capture
+     */
+    int blueMove(int pieceNumber, BlueDirection direction);
+
+    /**
+     * Returns the cell a <code>move</code> of the player who moves next leads to
+     */
+    int getTarget(int move);
+
+    /**
+     * Checks if a valid <code>move</code> of the player who moves next captures a piece
+     */
+    boolean isCapture(int move);
+
+    /**
+     * Makes a <code>move</code> of the player who moves next,
+     * returns the index the captured piece had, or -1 if there was no capture
+     */
+    int makeMove(int move);
+
+    /**
+     * Takes back the last move, restoring the captured piece at its original index
+     * Throws IllegalStateException if no move was made
+     */
+    void unmakeMove();
+
+    /**
+     * Returns the last move that can be taken back, or <code>Move.NONE</code>
+     */
+    int getLastMove();
+
+    /**
+     * Returns the player who made the last move that can be taken back
+     */
+    PieceType getLastMover();
+
+    /**
+     * Returns the index the piece captured by the last move had, or -1 if there was no capture
+     */
+    int getLastCaptured();
+}
@@ -0,0 +1,81 @@
+package boardgame.model;
+
+public final class Move {
+    /**
+     * Encoding of a move as a primitive int
+     * The lowest 2 bits contain the ordinal of the direction, the rest the index of the moving piece
+     */
+
+    /**
+     * Value of "no move"
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Number of move values, every move of a board with at most <code>BoardSpec.MAX_PIECES</code> pieces is below it
+     */
+    public static final int COUNT = BoardSpec.MAX_PIECES << 2;
+
+    private static final RedDirection[] RED_DIRECTIONS = RedDirection.values();
+    private static final BlueDirection[] BLUE_DIRECTIONS = BlueDirection.values();
+
+    private Move() {
+    }
+
+    /**
+     * Returns the move of the piece at index <code>pieceNumber</code> in the given <code>direction</code>
+     */
+    public static int of(int pieceNumber, RedDirection direction) {
+        return of(pieceNumber, direction.ordinal());
+    }
+
+    /**
+     * Returns the move of the piece at index <code>pieceNumber</code> in the given <code>direction</code>
+     */
+    public static int of(int pieceNumber, BlueDirection direction) {
+        return of(pieceNumber, direction.ordinal());
+    }
+
+    /**
+     * Returns the move of the piece at index <code>pieceNumber</code> in the direction of the given ordinal
+     */
+    public static int of(int pieceNumber, int directionOrdinal) {
+        return pieceNumber << 2 | directionOrdinal;
+    }
+
+    /**
+     * Returns the index of the moving piece
+     */
+    public static int pieceNumber(int move) {
+        return move >>> 2;
+    }
+
+    /**
+     * Returns the ordinal of the direction of the move
+     */
+    public static int directionOrdinal(int move) {
+        return move & 3;
+    }
+
+    /**
+     * Returns the direction of a Player2 move
+     */
+    public static RedDirection redDirection(int move) {
+        return RED_DIRECTIONS[directionOrdinal(move)];
+    }
+
+    /**
+     * Returns the direction of a Player1 move
+     */
+    public static BlueDirection blueDirection(int move) {
+        return BLUE_DIRECTIONS[directionOrdinal(move)];
+    }
+
+    /**
+     * Returns a String of a move made by <code>type</code>
+     */
+    public static String toString(PieceType type, int move) {
+        var direction = type == PieceType.RED ? redDirection(move) : blueDirection(move);
+        return type + "[" + pieceNumber(move) + "]" + direction;
+    }
+}
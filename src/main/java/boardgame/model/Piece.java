@@ -1,23 +1,31 @@
 package boardgame.model;
 
-import javafx.beans.property.ObjectProperty;
-import javafx.beans.property.SimpleObjectProperty;
-
 public class Piece {
     /**
      * Class of Piece objects
-     * A Piece object has a type and a position
+     * A Piece object has a type, an id and a position
+     * The id is the index the piece had at the start of the game, it never changes,
+     * unlike the index of the piece in the model, which shifts when a piece before it is captured
      */
 
     private PieceType type;
-    private ObjectProperty<Position> position = new SimpleObjectProperty<Position>();
+    private final int id;
+    private Position position;
 
     /**
-     * Constructor of Piece class
+     * Constructor of Piece class, the piece does not belong to a game and has no id (-1)
      */
     public Piece(PieceType type, Position position) {
+        this(type, -1, position);
+    }
+
+    /**
+     * Constructor of Piece class
+     */
+    public Piece(PieceType type, int id, Position position) {
         this.type = type;
-        this.position.set(position);
+        this.id = id;
+        this.position = position;
     }
 
     /**
@@ -27,32 +35,38 @@ public class Piece {
         return type;
     }
 
+    /**
+     * Returns piece's id, its index at the start of the game
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * Returns piece's position
      */
     public Position getPosition() {
-        return position.get();
+        return position;
     }
 
     /**
-     * Sets piece's position based on the given <code>direction</code>
+     * Sets piece's position
      */
-    public void moveTo(Direction direction) {
-        Position newPosition = position.get().moveTo(direction);
-        position.set(newPosition);
+    public void setPosition(Position position) {
+        this.position = position;
     }
 
     /**
-     * Returns a piece's Position object
+     * Sets piece's position based on the given <code>direction</code>
      */
-    public ObjectProperty<Position> positionProperty() {
-        return position;
+    public void moveTo(Direction direction) {
+        position = position.moveTo(direction);
     }
 
     /**
      * Returns a String of a piece
      */
     public String toString() {
-        return type.toString() + position.get().toString();
+        return type.toString() + position.toString();
     }
 }
@@ -0,0 +1,14 @@
+package boardgame.model;
+
+@FunctionalInterface
+public interface PieceListener {
+    /**
+     * Listener notified by <code>BoardGameModel</code> when a piece changes its position
+     * (a move is made or taken back)
+     */
+
+    /**
+     * Called after <code>piece</code> moved from <code>oldPosition</code> to <code>newPosition</code>
+     */
+    void pieceMoved(Piece piece, Position oldPosition, Position newPosition);
+}
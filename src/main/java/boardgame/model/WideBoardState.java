@@ -0,0 +1,545 @@
+package boardgame.model;
+
+import static boardgame.model.BoardSpec.DIRECTIONS;
+
+public class WideBoardState implements GameState {
+    /**
+     * Primitive representation of a game state on a board of more than 64 cells
+     * Occupancy is kept in arrays of longs, bit <code>cell & 63</code> of word <code>cell >>> 6</code>.
+     * Moves are generated piece by piece from the destination tables of the <code>BoardSpec</code>,
+     * so no shift crosses a word boundary.
+     */
+
+    /**
+     * Layout of an undo record: the move, the index of the captured piece plus one,
+     * the player who moved and the player who was next before the move
+     */
+    private static final int UNDO_CAPTURED_SHIFT = 8;
+    private static final int UNDO_RED_MOVED = 1 << 16;
+    private static final int UNDO_RED_WAS_NEXT = 1 << 17;
+
+    private static final int DOWN = RedDirection.DOWN.ordinal();
+    private static final int UP = BlueDirection.UP.ordinal();
+
+    private final BoardSpec spec;
+    private final int width;
+    private final int[] redSteps;
+    private final int[] blueSteps;
+    private final int[] redDestinations;
+    private final int[] blueDestinations;
+    private final long[] redKeys;
+    private final long[] blueKeys;
+    private final long redNextKey;
+
+    /**
+     * Occupancy of each players pieces and the black tiles, and a scratch board for counting targets
+     */
+    private final long[] redBoard;
+    private final long[] blueBoard;
+    private final long[] blackBoard;
+    private final long[] targets;
+
+    /**
+     * Cells of each players pieces, indexed the same way as the pieces of <code>BoardGameModel</code>
+     */
+    private final int[] redCells;
+    private final int[] blueCells;
+    private int redCount;
+    private int blueCount;
+
+    /**
+     * Index of the piece on each cell, the player is told by the occupancy
+     * Entries of empty cells are stale, they are never read
+     */
+    private final byte[] pieceNumbers;
+
+    /**
+     * The player who moves next, Player1 starts the game
+     */
+    private PieceType nextPlayer = PieceType.BLUE;
+
+    /**
+     * Zobrist hash of the state, updated on every move
+     */
+    private long hash;
+
+    /**
+     * Undo records of the moves made so far
+     */
+    private final int[] undoStack;
+    private int ply;
+
+    /**
+     * Constructor of WideBoardState, the starting state of <code>spec</code>
+     */
+    public WideBoardState(BoardSpec spec) {
+        this(spec, spec.getRedStart(), spec.getBlueStart());
+    }
+
+    /**
+     * Constructor of WideBoardState, the pieces on <code>redCells</code> and <code>blueCells</code>
+     * of the board of <code>spec</code>
+     */
+    public WideBoardState(BoardSpec spec, int[] redCells, int[] blueCells) {
+        this.spec = spec;
+        this.width = spec.getWidth();
+        this.redSteps = spec.redSteps;
+        this.blueSteps = spec.blueSteps;
+        this.redDestinations = spec.redDestinations;
+        this.blueDestinations = spec.blueDestinations;
+        this.redKeys = spec.redKeys;
+        this.blueKeys = spec.blueKeys;
+        this.redNextKey = spec.redNextKey;
+        int words = (spec.getCellCount() + Long.SIZE - 1) / Long.SIZE;
+        this.redBoard = new long[words];
+        this.blueBoard = new long[words];
+        this.blackBoard = new long[words];
+        this.targets = new long[words];
+        this.redCells = redCells.clone();
+        this.blueCells = blueCells.clone();
+        this.redCount = redCells.length;
+        this.blueCount = blueCells.length;
+        this.undoStack = new int[spec.getMaxPlies()];
+        this.pieceNumbers = new byte[spec.getCellCount()];
+        renumber(this.redCells, 0, redCount);
+        renumber(this.blueCells, 0, blueCount);
+        for (var cell : spec.getBlackCells()) {
+            set(blackBoard, cell);
+        }
+        for (var cell : redCells) {
+            set(redBoard, cell);
+            hash ^= redKeys[cell];
+        }
+        for (var cell : blueCells) {
+            set(blueBoard, cell);
+            hash ^= blueKeys[cell];
+        }
+    }
+
+    /**
+     * Copy constructor of WideBoardState
+     */
+    public WideBoardState(WideBoardState other) {
+        this.spec = other.spec;
+        this.width = other.width;
+        this.redSteps = other.redSteps;
+        this.blueSteps = other.blueSteps;
+        this.redDestinations = other.redDestinations;
+        this.blueDestinations = other.blueDestinations;
+        this.redKeys = other.redKeys;
+        this.blueKeys = other.blueKeys;
+        this.redNextKey = other.redNextKey;
+        this.redBoard = other.redBoard.clone();
+        this.blueBoard = other.blueBoard.clone();
+        this.blackBoard = other.blackBoard;
+        this.targets = new long[other.targets.length];
+        this.redCells = other.redCells.clone();
+        this.blueCells = other.blueCells.clone();
+        this.redCount = other.redCount;
+        this.blueCount = other.blueCount;
+        this.pieceNumbers = other.pieceNumbers.clone();
+        this.nextPlayer = other.nextPlayer;
+        this.undoStack = other.undoStack.clone();
+        this.ply = other.ply;
+        this.hash = other.hash;
+    }
+
+    @Override
+    public WideBoardState copy() {
+        return new WideBoardState(this);
+    }
+
+    private static boolean test(long[] board, int cell) {
+        return (board[cell >>> 6] >>> cell & 1L) != 0;
+    }
+
+    private static void set(long[] board, int cell) {
+        board[cell >>> 6] |= 1L << cell;
+    }
+
+    private static void clear(long[] board, int cell) {
+        board[cell >>> 6] &= ~(1L << cell);
+    }
+
+    @Override
+    public BoardSpec getSpec() {
+        return spec;
+    }
+
+    @Override
+    public PieceType getNextPlayer() {
+        return nextPlayer;
+    }
+
+    @Override
+    public void setNextPlayer(PieceType nextPlayer) {
+        if (this.nextPlayer != nextPlayer) {
+            hash ^= redNextKey;
+        }
+        this.nextPlayer = nextPlayer;
+    }
+
+    @Override
+    public long getHash() {
+        return hash;
+    }
+
+    @Override
+    public int getPly() {
+        return ply;
+    }
+
+    @Override
+    public int getRedCount() {
+        return redCount;
+    }
+
+    @Override
+    public int getBlueCount() {
+        return blueCount;
+    }
+
+    @Override
+    public int getRedCell(int pieceNumber) {
+        return redCells[pieceNumber];
+    }
+
+    @Override
+    public int getBlueCell(int pieceNumber) {
+        return blueCells[pieceNumber];
+    }
+
+    @Override
+    public boolean isRed(int cell) {
+        return test(redBoard, cell);
+    }
+
+    @Override
+    public boolean isBlue(int cell) {
+        return test(blueBoard, cell);
+    }
+
+    @Override
+    public boolean isBlack(int cell) {
+        return test(blackBoard, cell);
+    }
+
+    @Override
+    public int getRedPieceNumber(int cell) {
+        return isRed(cell) ? pieceNumbers[cell] : -1;
+    }
+
+    @Override
+    public int getBluePieceNumber(int cell) {
+        return isBlue(cell) ? pieceNumbers[cell] : -1;
+    }
+
+    /**
+     * Returns the cell the Player2 piece on <code>cell</code> reaches in the direction of <code>ordinal</code>,
+     * or -1 if it is not a valid move
+     */
+    private int redTarget(int cell, int ordinal) {
+        int target = redDestinations[cell * DIRECTIONS + ordinal];
+        if (target < 0 || isRed(target) || ordinal == DOWN && isBlue(target)) {
+            return -1;
+        }
+        return target;
+    }
+
+    /**
+     * Returns the cell the Player1 piece on <code>cell</code> reaches in the direction of <code>ordinal</code>,
+     * or -1 if it is not a valid move
+     */
+    private int blueTarget(int cell, int ordinal) {
+        int target = blueDestinations[cell * DIRECTIONS + ordinal];
+        if (target < 0 || isBlue(target) || ordinal == UP && isRed(target)) {
+            return -1;
+        }
+        return target;
+    }
+
+    @Override
+    public boolean isValidRedMove(int pieceNumber, RedDirection direction) {
+        return redTarget(redCells[pieceNumber], direction.ordinal()) >= 0;
+    }
+
+    @Override
+    public boolean isValidBlueMove(int pieceNumber, BlueDirection direction) {
+        return blueTarget(blueCells[pieceNumber], direction.ordinal()) >= 0;
+    }
+
+    @Override
+    public int getRedMobility() {
+        for (int i = 0; i < redCount; i++) {
+            for (int ordinal = 0; ordinal < DIRECTIONS; ordinal++) {
+                int target = redTarget(redCells[i], ordinal);
+                if (target >= 0) {
+                    set(targets, target);
+                }
+            }
+        }
+        return countTargets();
+    }
+
+    @Override
+    public int getBlueMobility() {
+        for (int i = 0; i < blueCount; i++) {
+            for (int ordinal = 0; ordinal < DIRECTIONS; ordinal++) {
+                int target = blueTarget(blueCells[i], ordinal);
+                if (target >= 0) {
+                    set(targets, target);
+                }
+            }
+        }
+        return countTargets();
+    }
+
+    /**
+     * Returns the number of cells marked in <code>targets</code> and clears it
+     */
+    private int countTargets() {
+        int count = 0;
+        for (int i = 0; i < targets.length; i++) {
+            count += Long.bitCount(targets[i]);
+            targets[i] = 0;
+        }
+        return count;
+    }
+
+    @Override
+    public boolean hasRedMoves() {
+        for (int i = 0; i < redCount; i++) {
+            int cell = redCells[i];
+            if (redTarget(cell, 0) >= 0 || redTarget(cell, 1) >= 0 || redTarget(cell, 2) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean hasBlueMoves() {
+        for (int i = 0; i < blueCount; i++) {
+            int cell = blueCells[i];
+            if (blueTarget(cell, 0) >= 0 || blueTarget(cell, 1) >= 0 || blueTarget(cell, 2) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isGameOver() {
+        return !hasRedMoves() || !hasBlueMoves();
+    }
+
+    @Override
+    public PieceType getWinner() {
+        if (!hasRedMoves()) {
+            return PieceType.BLUE;
+        }
+        if (!hasBlueMoves()) {
+            return PieceType.RED;
+        }
+        return null;
+    }
+
+    @Override
+    public int generateMoves(int[] moves) {
+        return nextPlayer == PieceType.RED ? generateRedMoves(moves) : generateBlueMoves(moves);
+    }
+
+    @Override
+    public int generateRedMoves(int[] moves) {
+        int count = 0;
+        for (int i = 0; i < redCount; i++) {
+            int cell = redCells[i];
+            for (int ordinal = 0; ordinal < DIRECTIONS; ordinal++) {
+                if (redTarget(cell, ordinal) >= 0) {
+                    moves[count++] = Move.of(i, ordinal);
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int generateBlueMoves(int[] moves) {
+        int count = 0;
+        for (int i = 0; i < blueCount; i++) {
+            int cell = blueCells[i];
+            for (int ordinal = 0; ordinal < DIRECTIONS; ordinal++) {
+                if (blueTarget(cell, ordinal) >= 0) {
+                    moves[count++] = Move.of(i, ordinal);
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int redMove(int pieceNumber, RedDirection direction) {
+        return redMove(pieceNumber, direction.ordinal());
+    }
+
+    private int redMove(int pieceNumber, int ordinal) {
+        int from = redCells[pieceNumber];
+        int to = redSteps[from * DIRECTIONS + ordinal];
+        redCells[pieceNumber] = to;
+        clear(redBoard, from);
+        set(redBoard, to);
+        hash ^= redKeys[from] ^ redKeys[to];
+        int captured = getBluePieceNumber(to);
+        if (captured >= 0) {
+            clear(blueBoard, to);
+            hash ^= blueKeys[to];
+            blueCount = remove(blueCells, blueCount, captured);
+        }
+        pieceNumbers[to] = (byte) pieceNumber;
+        pushUndo(Move.of(pieceNumber, ordinal), captured, true);
+        setNextPlayer(PieceType.BLUE);
+        return captured;
+    }
+
+    @Override
+    public int blueMove(int pieceNumber, BlueDirection direction) {
+        return blueMove(pieceNumber, direction.ordinal());
+    }
+
+    private int blueMove(int pieceNumber, int ordinal) {
+        int from = blueCells[pieceNumber];
+        int to = blueSteps[from * DIRECTIONS + ordinal];
+        blueCells[pieceNumber] = to;
+        clear(blueBoard, from);
+        set(blueBoard, to);
+        hash ^= blueKeys[from] ^ blueKeys[to];
+        int captured = getRedPieceNumber(to);
+        if (captured >= 0) {
+            clear(redBoard, to);
+            hash ^= redKeys[to];
+            redCount = remove(redCells, redCount, captured);
+        }
+        pieceNumbers[to] = (byte) pieceNumber;
+        pushUndo(Move.of(pieceNumber, ordinal), captured, false);
+        setNextPlayer(PieceType.RED);
+        return captured;
+    }
+
+    @Override
+    public int getTarget(int move) {
+        int pieceNumber = Move.pieceNumber(move);
+        int ordinal = Move.directionOrdinal(move);
+        if (nextPlayer == PieceType.RED) {
+            return redSteps[redCells[pieceNumber] * DIRECTIONS + ordinal];
+        }
+        return blueSteps[blueCells[pieceNumber] * DIRECTIONS + ordinal];
+    }
+
+    @Override
+    public boolean isCapture(int move) {
+        int target = getTarget(move);
+        return nextPlayer == PieceType.RED ? isBlue(target) : isRed(target);
+    }
+
+    @Override
+    public int makeMove(int move) {
+        if (nextPlayer == PieceType.RED) {
+            return redMove(Move.pieceNumber(move), Move.directionOrdinal(move));
+        }
+        return blueMove(Move.pieceNumber(move), Move.directionOrdinal(move));
+    }
+
+    @Override
+    public void unmakeMove() {
+        if (ply == 0) {
+            throw new IllegalStateException();
+        }
+        int record = undoStack[--ply];
+        int move = record & 0xFF;
+        int captured = (record >>> UNDO_CAPTURED_SHIFT & 0xFF) - 1;
+        int pieceNumber = Move.pieceNumber(move);
+        int ordinal = Move.directionOrdinal(move);
+        if ((record & UNDO_RED_MOVED) != 0) {
+            int to = redCells[pieceNumber];
+            int from = to - width - 1 + ordinal;
+            redCells[pieceNumber] = from;
+            pieceNumbers[from] = (byte) pieceNumber;
+            clear(redBoard, to);
+            set(redBoard, from);
+            hash ^= redKeys[from] ^ redKeys[to];
+            if (captured >= 0) {
+                set(blueBoard, to);
+                hash ^= blueKeys[to];
+                blueCount = insert(blueCells, blueCount, captured, to);
+            }
+        } else {
+            int to = blueCells[pieceNumber];
+            int from = to + width + 1 - ordinal;
+            blueCells[pieceNumber] = from;
+            pieceNumbers[from] = (byte) pieceNumber;
+            clear(blueBoard, to);
+            set(blueBoard, from);
+            hash ^= blueKeys[from] ^ blueKeys[to];
+            if (captured >= 0) {
+                set(redBoard, to);
+                hash ^= redKeys[to];
+                redCount = insert(redCells, redCount, captured, to);
+            }
+        }
+        setNextPlayer((record & UNDO_RED_WAS_NEXT) != 0 ? PieceType.RED : PieceType.BLUE);
+    }
+
+    @Override
+    public int getLastMove() {
+        return ply == 0 ? Move.NONE : undoStack[ply - 1] & 0xFF;
+    }
+
+    @Override
+    public PieceType getLastMover() {
+        return ply == 0 ? null : (undoStack[ply - 1] & UNDO_RED_MOVED) != 0 ? PieceType.RED : PieceType.BLUE;
+    }
+
+    @Override
+    public int getLastCaptured() {
+        return ply == 0 ? -1 : (undoStack[ply - 1] >>> UNDO_CAPTURED_SHIFT & 0xFF) - 1;
+    }
+
+    private void pushUndo(int move, int captured, boolean redMoved) {
+        int record = move | (captured + 1) << UNDO_CAPTURED_SHIFT;
+        if (redMoved) {
+            record |= UNDO_RED_MOVED;
+        }
+        if (nextPlayer == PieceType.RED) {
+            record |= UNDO_RED_WAS_NEXT;
+        }
+        undoStack[ply++] = record;
+    }
+
+    /**
+     * Removes the element at <code>index</code> keeping the order of the rest, returns the new count
+     */
+    private int remove(int[] cells, int count, int index) {
+        System.arraycopy(cells, index + 1, cells, index, count - index - 1);
+        renumber(cells, index, count - 1);
+        return count - 1;
+    }
+
+    /**
+     * Inserts <code>cell</code> at <code>index</code> moving the rest forward, returns the new count
+     */
+    private int insert(int[] cells, int count, int index, int cell) {
+        System.arraycopy(cells, index, cells, index + 1, count - index);
+        cells[index] = cell;
+        renumber(cells, index, count + 1);
+        return count + 1;
+    }
+
+    /**
+     * Updates the piece index of the cells of the pieces from <code>from</code> to <code>to</code>
+     */
+    private void renumber(int[] cells, int from, int to) {
+        for (int i = from; i < to; i++) {
+            pieceNumbers[cells[i]] = (byte) i;
+        }
+    }
+}
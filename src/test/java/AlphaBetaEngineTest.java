@@ -0,0 +1,127 @@
+import boardgame.engine.AlphaBetaEngine;
+import boardgame.engine.SearchResult;
+import boardgame.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlphaBetaEngineTest {
+
+    @Test
+    public void testFindsWinningCapture() {
+        var state = new BoardState(0L,
+                new int[]{BoardState.cellOf(0, 0), BoardState.cellOf(0, 6)},
+                new int[]{BoardState.cellOf(1, 1)});
+        state.setNextPlayer(PieceType.RED);
+        var engine = new AlphaBetaEngine(1000);
+        var result = engine.search(state);
+        assertEquals(Move.of(0, RedDirection.DOWN_RIGHT), result.move());
+        assertEquals(AlphaBetaEngine.WIN - 1, result.score());
+        assertEquals(0, state.getPly());
+    }
+
+    @Test
+    public void testScoreBounds() {
+        // A tablebase win at the deepest ply is still a win, below a win found by the search
+        assertTrue(AlphaBetaEngine.TABLEBASE_WIN - AlphaBetaEngine.MAX_DEPTH > AlphaBetaEngine.WIN_BOUND);
+        assertTrue(AlphaBetaEngine.WIN - AlphaBetaEngine.MAX_DEPTH > AlphaBetaEngine.TABLEBASE_WIN);
+    }
+
+    @Test
+    public void testRespectsTimeBudget() {
+        var state = new BoardGameModel().getState();
+        var engine = new AlphaBetaEngine(100);
+        long start = System.nanoTime();
+        var result = engine.search(state);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        // Only a sanity check, the deadline itself is checked by testStopsAtDeadline
+        assertTrue(elapsed < 2000, "search took " + elapsed + " ms");
+        assertTrue(state.isValidBlueMove(Move.pieceNumber(result.move()), Move.blueDirection(result.move())));
+        assertTrue(result.depth() > 0);
+    }
+
+    @Test
+    public void testStopsAtDeadline() {
+        var state = new BoardGameModel().getState();
+        var engine = new AlphaBetaEngine(100);
+        // Every reading of the clock is 1 ms later, the 101st one is past the deadline
+        var now = new AtomicLong();
+        engine.setClock(() -> now.addAndGet(1_000_000));
+        var result = engine.search(state);
+        // The clock is read at the start, after every completed iteration and every TIME_CHECK_INTERVAL nodes
+        assertTrue(result.depth() > 0);
+        assertEquals((100L - result.depth()) * AlphaBetaEngine.TIME_CHECK_INTERVAL, result.nodes());
+        assertEquals(101, result.elapsedMillis());
+    }
+
+    @Test
+    public void testSearchListener() {
+        var state = new BoardGameModel().getState();
+        var engine = new AlphaBetaEngine(10_000);
+        engine.setMaxDepth(5);
+        List<SearchResult> progress = new ArrayList<>();
+        engine.setSearchListener(progress::add);
+        var result = engine.search(state);
+        assertEquals(5, progress.size());
+        for (int i = 0; i < progress.size(); i++) {
+            assertEquals(i + 1, progress.get(i).depth());
+        }
+        assertEquals(result.move(), progress.get(4).move());
+        assertEquals(result.score(), progress.get(4).score());
+    }
+
+    @Test
+    public void testBeatsRandomPlayer() {
+        var random = new Random(1);
+        var engine = new AlphaBetaEngine(20);
+        int[] moves = new int[BoardState.MAX_MOVES];
+        int wins = 0;
+        for (int game = 0; game < 10; game++) {
+            var engineSide = game % 2 == 0 ? PieceType.BLUE : PieceType.RED;
+            var state = new BoardGameModel().getState();
+            while (!state.isGameOver()) {
+                if (state.getNextPlayer() == engineSide) {
+                    state.makeMove(engine.selectMove(state));
+                } else {
+                    state.makeMove(moves[random.nextInt(state.generateMoves(moves))]);
+                }
+            }
+            if (state.getWinner() == engineSide) {
+                wins++;
+            }
+        }
+        assertTrue(wins >= 8, "engine won " + wins + " of 10 games");
+    }
+
+    @Test
+    public void testStoppedBeforeStart() {
+        var state = new BoardGameModel().getState();
+        var engine = new AlphaBetaEngine(10_000);
+        engine.setMaxDepth(4);
+        var result = engine.search(state, new AtomicBoolean(true));
+        assertEquals(0, result.depth());
+        assertTrue(state.isValidBlueMove(Move.pieceNumber(result.move()), Move.blueDirection(result.move())));
+        // Stopping between two searches does not stop the next one
+        engine.stop();
+        assertEquals(4, engine.search(state).depth());
+    }
+
+    @Test
+    public void testMultiThreadedSearch() {
+        var state = new BoardGameModel().getState();
+        var engine = new AlphaBetaEngine(10_000);
+        engine.setMaxDepth(8);
+        engine.setThreads(4);
+        var result = engine.search(state);
+        assertEquals(8, result.depth());
+        assertTrue(state.isValidBlueMove(Move.pieceNumber(result.move()), Move.blueDirection(result.move())));
+        engine.setThreads(1);
+        assertEquals(1, engine.getThreads());
+    }
+}
@@ -1,7 +1,9 @@
 import boardgame.model.*;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -71,4 +73,64 @@ class BoardGameModelTest {
         assertEquals(bgm.getBluePiecePositions(), bgm.getNotFinishedBluePiecePositions());
         assertEquals(bgm.getRedPiecePositions(), bgm.getNotFinishedRedPiecePositions());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMakeUnmakeMove() {
+        BoardGameModel bgm = new BoardGameModel();
+        String start = bgm.toString();
+        bgm.makeMove(Move.of(3, BlueDirection.UP));
+        bgm.makeMove(Move.of(0, RedDirection.DOWN));
+        bgm.makeMove(Move.of(3, BlueDirection.UP));
+        bgm.makeMove(Move.of(0, RedDirection.DOWN));
+        bgm.makeMove(Move.of(3, BlueDirection.UP));
+        bgm.makeMove(Move.of(0, RedDirection.DOWN));
+        bgm.makeMove(Move.of(3, BlueDirection.UP));
+        bgm.makeMove(Move.of(0, RedDirection.DOWN));
+        bgm.makeMove(Move.of(3, BlueDirection.UP_LEFT));
+        assertEquals(6, bgm.getRedPieceCount());
+
+        bgm.unmakeMove();
+        assertEquals(7, bgm.getRedPieceCount());
+        assertEquals(new Position(0, 2), bgm.getRedPiecePosition(2));
+        assertEquals(PieceType.BLUE, bgm.getNextPlayer());
+        while (bgm.getState().getPly() > 0) {
+            bgm.unmakeMove();
+        }
+        assertEquals(start, bgm.toString());
+    }
+
+    @Test
+    public void testPieceIds() {
+        BoardGameModel bgm = new BoardGameModel();
+        Piece captured = bgm.getRedPiece(2);
+        Piece shifted = bgm.getRedPiece(3);
+        assertEquals(2, captured.getId());
+        for (int i = 0; i < 4; i++) {
+            bgm.blueMove(3, BlueDirection.UP);
+        }
+        bgm.blueMove(3, BlueDirection.UP_LEFT);
+        assertSame(shifted, bgm.getRedPiece(2));
+        assertEquals(3, bgm.getRedPiece(2).getId());
+        assertEquals(2, bgm.getRedPieceNumber(new Position(0, 3)).getAsInt());
+        assertThrows(IndexOutOfBoundsException.class, () -> bgm.getRedPiece(6));
+
+        bgm.unmakeMove();
+        assertSame(captured, bgm.getRedPiece(2));
+        assertSame(shifted, bgm.getRedPiece(3));
+        assertEquals(3, bgm.getRedPieceNumber(new Position(0, 3)).getAsInt());
+    }
+
+    @Test
+    public void testPieceListener() {
+        BoardGameModel bgm = new BoardGameModel();
+        List<String> moves = new ArrayList<>();
+        PieceListener listener = (piece, from, to) -> moves.add(piece.getType() + " " + from + "->" + to);
+        bgm.addPieceListener(listener);
+        bgm.blueMove(3, BlueDirection.UP);
+        bgm.unmakeMove();
+        assertEquals(List.of("BLUE (5,3)->(4,3)", "BLUE (4,3)->(5,3)"), moves);
+        bgm.removePieceListener(listener);
+        bgm.blueMove(3, BlueDirection.UP);
+        assertEquals(2, moves.size());
+    }
+}
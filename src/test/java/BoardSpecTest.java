@@ -0,0 +1,115 @@
+import boardgame.engine.AlphaBetaEngine;
+import boardgame.engine.Perft;
+import boardgame.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardSpecTest {
+
+    @Test
+    public void testStandard() {
+        var spec = BoardSpec.STANDARD;
+        assertEquals(BoardGameModel.BOARD_HEIGHT, spec.getHeight());
+        assertEquals(BoardGameModel.BOARD_WIDTH, spec.getWidth());
+        assertEquals(BoardState.CELL_COUNT, spec.getCellCount());
+        assertEquals(BoardState.MAX_MOVES, spec.getMaxMoves());
+        assertEquals(BoardState.MAX_PLIES, spec.getMaxPlies());
+        assertArrayEquals(new Position[]{new Position(2, 4), new Position(3, 2)}, spec.getBlackTiles());
+        assertTrue(spec.isBlack(spec.cellOf(3, 2)));
+        assertEquals(spec.cellOf(4, 3), spec.targetOf(spec.cellOf(5, 3), BlueDirection.UP));
+        assertEquals(-1, spec.targetOf(spec.cellOf(5, 6), RedDirection.DOWN_RIGHT));
+        assertTrue(GameState.of(spec) instanceof BoardState);
+        var same = BoardSpec.of(BoardGameModel.BOARD_HEIGHT, BoardGameModel.BOARD_WIDTH, new Position(2, 4), new Position(3, 2));
+        assertEquals(spec, same);
+        assertEquals(spec.hashCode(), same.hashCode());
+        assertNotEquals(spec, BoardSpec.of(BoardGameModel.BOARD_HEIGHT, BoardGameModel.BOARD_WIDTH));
+    }
+
+    @Test
+    public void testInvalidSpec() {
+        assertThrows(IllegalArgumentException.class, () -> BoardSpec.of(1, 7));
+        assertThrows(IllegalArgumentException.class, () -> BoardSpec.of(6, 7, new Position(6, 0)));
+        assertThrows(IllegalArgumentException.class, () -> BoardSpec.of(6, 7, new Position(0, 0)));
+        assertThrows(IllegalArgumentException.class, () -> new BoardSpec(6, 7, List.of(), List.of(), List.of(new Position(5, 0))));
+        assertThrows(IllegalStateException.class, () -> BoardSpec.of(9, 9).getBlackBoard());
+    }
+
+    @Test
+    public void testRepresentation() {
+        assertTrue(GameState.of(BoardSpec.of(8, 8)) instanceof BoardState);
+        assertTrue(GameState.of(BoardSpec.of(9, 9)) instanceof WideBoardState);
+    }
+
+    @Test
+    public void testWideStateMatchesBoardState() {
+        assertEquals(101124, Perft.perft(new WideBoardState(BoardSpec.STANDARD), 4));
+
+        var spec = BoardSpec.of(8, 8, new Position(3, 3), new Position(4, 4));
+        var state = new BoardState(spec);
+        var wide = new WideBoardState(spec);
+        int[] moves = new int[spec.getMaxMoves()];
+        int[] wideMoves = new int[spec.getMaxMoves()];
+        var random = new Random(16);
+        for (int game = 0; game < 50; game++) {
+            while (!state.isGameOver()) {
+                int count = state.generateMoves(moves);
+                assertEquals(count, wide.generateMoves(wideMoves));
+                for (int i = 0; i < count; i++) {
+                    assertEquals(moves[i], wideMoves[i]);
+                }
+                assertEquals(state.getRedMobility(), wide.getRedMobility());
+                assertEquals(state.getBlueMobility(), wide.getBlueMobility());
+                int move = moves[random.nextInt(count)];
+                assertEquals(state.makeMove(move), wide.makeMove(move));
+                assertEquals(state.getHash(), wide.getHash());
+            }
+            assertTrue(wide.isGameOver());
+            assertEquals(state.getWinner(), wide.getWinner());
+            while (state.getPly() > 0) {
+                state.unmakeMove();
+                wide.unmakeMove();
+                assertEquals(state.getHash(), wide.getHash());
+            }
+        }
+    }
+
+    @Test
+    public void testWideBoard() {
+        var spec = BoardSpec.of(9, 10, new Position(4, 4), new Position(4, 5));
+        var state = GameState.of(spec);
+        assertEquals(10, state.getRedCount());
+        assertTrue(state.isBlack(spec.cellOf(4, 5)));
+        assertEquals(28, Perft.perft(state, 1));
+        long start = state.getHash();
+        int[] moves = new int[spec.getMaxMoves()];
+        var random = new Random(9);
+        while (!state.isGameOver()) {
+            state.makeMove(moves[random.nextInt(state.generateMoves(moves))]);
+        }
+        assertTrue(state.getPly() <= spec.getMaxPlies());
+        while (state.getPly() > 0) {
+            state.unmakeMove();
+        }
+        assertEquals(start, state.getHash());
+    }
+
+    @Test
+    public void testModelAndEngineOnVariant() {
+        var spec = BoardSpec.of(9, 9, new Position(4, 4));
+        BoardGameModel bgm = new BoardGameModel(spec);
+        assertSame(spec, bgm.getSpec());
+        assertEquals(9, bgm.getRedPieceCount());
+        assertEquals(new Position(7, 0), bgm.getTargetPosition(new Position(8, 0), BlueDirection.UP));
+        bgm.blueMove(4, BlueDirection.UP);
+        assertEquals(new Position(7, 4), bgm.getBluePiecePosition(4));
+
+        var engine = new AlphaBetaEngine(1);
+        engine.setMaxDepth(4);
+        int move = engine.selectMove(bgm.getState());
+        assertTrue(bgm.isValidRedMove(Move.pieceNumber(move), Move.redDirection(move)));
+    }
+}
@@ -0,0 +1,154 @@
+import boardgame.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardStateTest {
+
+    @Test
+    public void testCells() {
+        assertEquals(0, BoardState.cellOf(0, 0));
+        assertEquals(BoardState.CELL_COUNT - 1, BoardState.cellOf(BoardGameModel.BOARD_HEIGHT - 1, BoardGameModel.BOARD_WIDTH - 1));
+        assertEquals(new Position(3, 2), BoardState.positionOf(BoardState.cellOf(new Position(3, 2))));
+        assertEquals(-1, BoardState.targetOf(BoardState.cellOf(0, 0), BlueDirection.UP));
+        assertEquals(-1, BoardState.targetOf(BoardState.cellOf(2, 0), RedDirection.DOWN_LEFT));
+        assertEquals(BoardState.cellOf(3, 1), BoardState.targetOf(BoardState.cellOf(2, 0), RedDirection.DOWN_RIGHT));
+        assertEquals(BoardState.cellOf(1, 6), BoardState.targetOf(BoardState.cellOf(2, 5), BlueDirection.UP_RIGHT));
+        BoardGameModel bgm = new BoardGameModel();
+        assertEquals(new Position(4, 2), bgm.getTargetPosition(new Position(5, 3), BlueDirection.UP_LEFT));
+        assertNull(bgm.getTargetPosition(new Position(5, 6), RedDirection.DOWN_RIGHT));
+    }
+
+    @Test
+    public void testSameRulesAsModel() {
+        BoardGameModel bgm = new BoardGameModel();
+        GameState state = bgm.getState();
+        assertTrue(state.isBlack(BoardState.cellOf(3, 2)));
+        assertTrue(state.isRed(BoardState.cellOf(0, 3)));
+        assertTrue(state.isBlue(BoardState.cellOf(BoardGameModel.BOARD_HEIGHT - 1, 3)));
+        for (int i = 0; i < bgm.getRedPieceCount(); i++) {
+            assertEquals(bgm.getRedPiecePosition(i), BoardState.positionOf(state.getRedCell(i)));
+            for (var direction : RedDirection.values()) {
+                assertEquals(bgm.isValidRedMove(i, direction), state.isValidRedMove(i, direction));
+            }
+        }
+        assertTrue(state.hasRedMoves());
+        assertTrue(state.hasBlueMoves());
+    }
+
+    @Test
+    public void testCapture() {
+        BoardGameModel bgm = new BoardGameModel();
+        bgm.blueMove(3, BlueDirection.UP);
+        bgm.blueMove(3, BlueDirection.UP);
+        bgm.blueMove(3, BlueDirection.UP);
+        bgm.blueMove(3, BlueDirection.UP);
+        assertFalse(bgm.isValidBlueMove(3, BlueDirection.UP));
+        assertTrue(bgm.isValidBlueMove(3, BlueDirection.UP_LEFT));
+        bgm.blueMove(3, BlueDirection.UP_LEFT);
+
+        GameState state = bgm.getState();
+        assertEquals(6, bgm.getRedPieceCount());
+        assertEquals(6, state.getRedCount());
+        assertEquals(new Position(0, 2), bgm.getBluePiecePosition(3));
+        assertEquals(2, bgm.getRedPieceNumber(new Position(0, 3)).getAsInt());
+        assertEquals(2, state.getRedPieceNumber(BoardState.cellOf(0, 3)));
+        assertFalse(state.isRed(BoardState.cellOf(0, 2)));
+        assertThrows(IllegalArgumentException.class, () -> bgm.blueMove(3, BlueDirection.UP));
+    }
+
+    @Test
+    public void testGenerateMoves() {
+        BoardGameModel bgm = new BoardGameModel();
+        GameState state = bgm.getState();
+        int[] moves = new int[BoardState.MAX_MOVES];
+
+        assertEquals(PieceType.BLUE, state.getNextPlayer());
+        int count = state.generateMoves(moves);
+        assertEquals(19, count);
+        for (int i = 0; i < count; i++) {
+            assertTrue(bgm.isValidBlueMove(Move.pieceNumber(moves[i]), Move.blueDirection(moves[i])));
+        }
+        assertEquals(Move.of(0, BlueDirection.UP), moves[0]);
+
+        bgm.blueMove(3, BlueDirection.UP);
+        assertEquals(PieceType.RED, state.getNextPlayer());
+        count = bgm.generateMoves(moves);
+        int expected = 0;
+        for (int i = 0; i < bgm.getRedPieceCount(); i++) {
+            expected += bgm.getRedValidMoves(i).size();
+        }
+        assertEquals(expected, count);
+        for (int i = 0; i < count; i++) {
+            assertTrue(bgm.isValidRedMove(Move.pieceNumber(moves[i]), Move.redDirection(moves[i])));
+        }
+    }
+
+    @Test
+    public void testMakeUnmakeMove() {
+        BoardState state = new BoardState(BoardSpec.STANDARD);
+        BoardState start = new BoardState(state);
+        int[] moves = new int[BoardState.MAX_MOVES];
+        var random = new Random(42);
+        for (int game = 0; game < 100; game++) {
+            while (state.hasRedMoves() && state.hasBlueMoves()) {
+                int count = state.generateMoves(moves);
+                state.makeMove(moves[random.nextInt(count)]);
+                assertPieceNumbers(state);
+            }
+            while (state.getPly() > 0) {
+                state.unmakeMove();
+            }
+            assertEquals(start.getRedBoard(), state.getRedBoard());
+            assertEquals(start.getBlueBoard(), state.getBlueBoard());
+            assertEquals(start.getRedCount(), state.getRedCount());
+            assertEquals(start.getBlueCount(), state.getBlueCount());
+            for (int i = 0; i < start.getRedCount(); i++) {
+                assertEquals(start.getRedCell(i), state.getRedCell(i));
+                assertEquals(start.getBlueCell(i), state.getBlueCell(i));
+            }
+            assertPieceNumbers(state);
+            assertEquals(PieceType.BLUE, state.getNextPlayer());
+        }
+        assertThrows(IllegalStateException.class, state::unmakeMove);
+    }
+
+    private static void assertPieceNumbers(GameState state) {
+        for (int i = 0; i < state.getRedCount(); i++) {
+            assertEquals(i, state.getRedPieceNumber(state.getRedCell(i)));
+            assertEquals(-1, state.getBluePieceNumber(state.getRedCell(i)));
+        }
+        for (int i = 0; i < state.getBlueCount(); i++) {
+            assertEquals(i, state.getBluePieceNumber(state.getBlueCell(i)));
+        }
+    }
+
+    @Test
+    public void testHash() {
+        BoardState state = new BoardState(BoardSpec.STANDARD);
+        long start = state.getHash();
+        assertEquals(state.computeHash(), start);
+        int[] moves = new int[BoardState.MAX_MOVES];
+        var random = new Random(7);
+        var seen = new HashMap<Long, String>();
+        for (int game = 0; game < 100; game++) {
+            while (!state.isGameOver()) {
+                int count = state.generateMoves(moves);
+                state.makeMove(moves[random.nextInt(count)]);
+                assertEquals(state.computeHash(), state.getHash());
+                var key = Long.toString(state.getRedBoard()) + state.getBlueBoard() + state.getNextPlayer();
+                assertEquals(key, seen.computeIfAbsent(state.getHash(), hash -> key));
+            }
+            while (state.getPly() > 0) {
+                state.unmakeMove();
+                assertEquals(state.computeHash(), state.getHash());
+            }
+            assertEquals(start, state.getHash());
+        }
+        state.setNextPlayer(PieceType.RED);
+        assertNotEquals(start, state.getHash());
+    }
+}
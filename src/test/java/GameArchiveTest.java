@@ -0,0 +1,110 @@
+import boardgame.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    private static GameState randomGame(BoardSpec spec, PieceType firstPlayer, long seed) {
+        var state = GameState.of(spec);
+        state.setNextPlayer(firstPlayer);
+        int[] moves = new int[spec.getMaxMoves()];
+        var random = new Random(seed);
+        while (!state.isGameOver()) {
+            state.makeMove(moves[random.nextInt(state.generateMoves(moves))]);
+        }
+        return state;
+    }
+
+    private static void assertSameSpec(BoardSpec expected, BoardSpec actual) {
+        assertEquals(expected.getHeight(), actual.getHeight());
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertArrayEquals(expected.getBlackCells(), actual.getBlackCells());
+        assertArrayEquals(expected.getRedStart(), actual.getRedStart());
+        assertArrayEquals(expected.getBlueStart(), actual.getBlueStart());
+    }
+
+    @Test
+    public void testWriteAndReplay() throws IOException {
+        Path path = directory.resolve("games.bin");
+        var wide = new BoardSpec(300, 300, List.of(new Position(150, 150)),
+                List.of(new Position(0, 0), new Position(0, 299)), List.of(new Position(299, 1), new Position(299, 298)));
+        List<GameState> games = List.of(
+                randomGame(BoardSpec.STANDARD, PieceType.BLUE, 1),
+                randomGame(BoardSpec.STANDARD, PieceType.RED, 2),
+                randomGame(BoardSpec.of(9, 9, new Position(4, 4)), PieceType.BLUE, 3),
+                randomGame(wide, PieceType.BLUE, 4));
+        try (var writer = GameArchiveWriter.open(path)) {
+            for (int i = 0; i < games.size(); i++) {
+                writer.write("Player" + i, "Játékos" + i, games.get(i));
+            }
+        }
+        var cursor = GameArchive.open(path).cursor();
+        assertThrows(IllegalStateException.class, cursor::getSpec);
+        BoardSpec standard = null;
+        for (int i = 0; i < games.size(); i++) {
+            var game = games.get(i);
+            assertTrue(cursor.next());
+            assertEquals("Player" + i, cursor.getPlayer1Name());
+            assertEquals("Játékos" + i, cursor.getPlayer2Name());
+            assertSameSpec(game.getSpec(), cursor.getSpec());
+            assertEquals(game.getPly(), cursor.getMoveCount());
+            assertEquals(game.getLastMove(), cursor.getMove(cursor.getMoveCount() - 1));
+            assertEquals(cursor.getMoveCount(), cursor.getMoves().remaining());
+            var model = cursor.replay();
+            assertEquals(game.getHash(), model.getHash());
+            assertEquals(game.getWinner(), model.getState().getWinner());
+            assertEquals(game.getHash(), cursor.replay(GameState.of(cursor.getSpec())).getHash());
+            if (i == 0) {
+                standard = cursor.getSpec();
+                assertEquals(PieceType.BLUE, cursor.getFirstPlayer());
+            } else if (i == 1) {
+                assertSame(standard, cursor.getSpec());
+                assertEquals(PieceType.RED, cursor.getFirstPlayer());
+            }
+        }
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void testUnfinishedRecord() throws IOException {
+        Path path = directory.resolve("games.bin");
+        try (var writer = GameArchiveWriter.open(path)) {
+            writer.write("Alice", "Bob", randomGame(BoardSpec.STANDARD, PieceType.BLUE, 5));
+        }
+        long size = Files.size(path);
+        Files.write(path, new byte[]{0, 0, 0, 40, 0, 6}, StandardOpenOption.APPEND);
+        var cursor = GameArchive.open(path).cursor();
+        assertTrue(cursor.next());
+        assertFalse(cursor.next());
+
+        try (var writer = GameArchiveWriter.open(path)) {
+            assertEquals(size, Files.size(path));
+            writer.write("Carol", "Dave", randomGame(BoardSpec.STANDARD, PieceType.BLUE, 6));
+        }
+        cursor = GameArchive.open(path).cursor();
+        assertTrue(cursor.next());
+        assertTrue(cursor.next());
+        assertEquals("Carol", cursor.getPlayer1Name());
+        assertFalse(cursor.next());
+    }
+
+    @Test
+    public void testNotAnArchive() throws IOException {
+        Path path = directory.resolve("players.json");
+        Files.writeString(path, "[{\"name\":\"Alice\",\"wins\":5}]");
+        assertThrows(IllegalArgumentException.class, () -> GameArchive.open(path));
+        assertThrows(IOException.class, () -> GameArchiveWriter.open(path));
+    }
+}
@@ -0,0 +1,93 @@
+import boardgame.engine.MctsEngine;
+import boardgame.engine.RandomEngine;
+import boardgame.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MctsEngineTest {
+
+    @Test
+    public void testFindsWinningCapture() {
+        var state = new BoardState(0L,
+                new int[]{BoardState.cellOf(0, 0), BoardState.cellOf(0, 6)},
+                new int[]{BoardState.cellOf(1, 1)});
+        state.setNextPlayer(PieceType.RED);
+        var engine = new MctsEngine(10_000, 1);
+        engine.setPlayoutBudget(2000);
+        // The nodes of the previous search are reused, none of its statistics are left
+        engine.search(new BoardGameModel().getState());
+        var result = engine.search(state);
+        assertEquals(Move.of(0, RedDirection.DOWN_RIGHT), result.move());
+        assertEquals(1.0, result.winRate());
+        assertEquals(2000, result.playouts());
+        assertEquals(0, state.getPly());
+    }
+
+    @Test
+    public void testBeatsRandomPlayer() {
+        var engine = new MctsEngine(10_000, 1, 1 << 16);
+        engine.setPlayoutBudget(2000);
+        var opponent = new RandomEngine(1);
+        int wins = 0;
+        for (int game = 0; game < 10; game++) {
+            var engineSide = game % 2 == 0 ? PieceType.BLUE : PieceType.RED;
+            var state = new BoardGameModel().getState();
+            while (!state.isGameOver()) {
+                state.makeMove((state.getNextPlayer() == engineSide ? engine : opponent).selectMove(state));
+            }
+            if (state.getWinner() == engineSide) {
+                wins++;
+            }
+        }
+        assertTrue(wins >= 8, "engine won " + wins + " of 10 games");
+    }
+
+    @Test
+    public void testMultiThreadedSearch() {
+        var state = new BoardGameModel().getState();
+        var engine = new MctsEngine(10_000, 1, 1 << 16);
+        engine.setPlayoutBudget(4000);
+        engine.setThreads(4);
+        var result = engine.search(state);
+        assertEquals(4000, result.playouts());
+        assertTrue(state.isValidBlueMove(Move.pieceNumber(result.move()), Move.blueDirection(result.move())));
+        engine.setThreads(1);
+    }
+
+    @Test
+    public void testStoppedBeforeStart() {
+        var state = new BoardGameModel().getState();
+        var engine = new MctsEngine(10_000, 1, 1 << 16);
+        engine.setPlayoutBudget(1000);
+        assertEquals(0, engine.search(state, new AtomicBoolean(true)).playouts());
+        engine.stop();
+        assertEquals(1000, engine.search(state).playouts());
+    }
+
+    @Test
+    public void testRespectsTimeBudget() {
+        var engine = new MctsEngine(100, 1, 1 << 16);
+        long start = System.nanoTime();
+        var result = engine.search(new BoardGameModel().getState());
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        // Only a sanity check, the deadline itself is checked by testStopsAtDeadline
+        assertTrue(elapsed < 2000, "search took " + elapsed + " ms");
+        assertTrue(result.playouts() > 0);
+    }
+
+    @Test
+    public void testStopsAtDeadline() {
+        var engine = new MctsEngine(100, 1, 1 << 16);
+        // Every reading of the clock is 1 ms later, the 101st one is past the deadline
+        var now = new AtomicLong();
+        engine.setClock(() -> now.addAndGet(1_000_000));
+        var result = engine.search(new BoardGameModel().getState());
+        // The clock is read at the start and every TIME_CHECK_INTERVAL playouts
+        assertEquals(100L * MctsEngine.TIME_CHECK_INTERVAL, result.playouts());
+        assertEquals(101, result.elapsedMillis());
+    }
+}
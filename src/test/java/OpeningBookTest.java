@@ -0,0 +1,131 @@
+import boardgame.engine.AlphaBetaEngine;
+import boardgame.engine.BookMove;
+import boardgame.engine.OpeningBook;
+import boardgame.engine.OpeningBookBuilder;
+import boardgame.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+
+    @TempDir
+    Path directory;
+
+    private Path writeArchive(int games) throws IOException {
+        Path path = directory.resolve("games.bin");
+        var random = new Random(25);
+        try (var writer = GameArchiveWriter.open(path)) {
+            for (int i = 0; i < games; i++) {
+                var spec = i % 10 == 9 ? BoardSpec.of(7, 7) : BoardSpec.STANDARD;
+                var state = GameState.of(spec);
+                int[] moves = new int[spec.getMaxMoves()];
+                while (!state.isGameOver()) {
+                    // The first move is always one of two, so the book has a favourite
+                    int count = state.generateMoves(moves);
+                    state.makeMove(moves[state.getPly() == 0 ? random.nextInt(2) : random.nextInt(count)]);
+                }
+                writer.write("Player1", "Player2", state);
+            }
+        }
+        return path;
+    }
+
+    @Test
+    public void testGames() throws IOException {
+        var builder = new OpeningBookBuilder(BoardSpec.STANDARD, 4);
+        assertEquals(90, builder.addGames(GameArchive.open(writeArchive(100))));
+        Path path = directory.resolve("book.bin");
+        builder.write(path);
+        var book = OpeningBook.open(path);
+        assertEquals(builder.getEntryCount(), book.getEntryCount());
+        assertEquals(BoardSpec.STANDARD, book.getSpec());
+        assertTrue(book.getMoves(GameState.of(BoardSpec.of(7, 7))).isEmpty());
+        book.setTrust(1, 0);
+
+        var state = GameState.of(BoardSpec.STANDARD);
+        var moves = book.getMoves(state);
+        assertEquals(2, moves.size());
+        assertEquals(90, moves.stream().mapToInt(BookMove::games).sum());
+        assertTrue(moves.get(0).weight() >= moves.get(1).weight());
+        assertEquals(moves.get(0).move(), book.probe(state));
+        for (var move : moves) {
+            assertEquals(move.games(), move.weight());
+            assertTrue(move.wins() <= move.games());
+        }
+
+        // Four plies deep every position is past the book
+        int[] buffer = new int[BoardSpec.STANDARD.getMaxMoves()];
+        for (int ply = 0; ply < 4; ply++) {
+            state.generateMoves(buffer);
+            int move = book.probe(state);
+            state.makeMove(move == Move.NONE ? buffer[0] : move);
+        }
+        assertEquals(Move.NONE, book.probe(state));
+        assertTrue(book.getMoves(state).isEmpty());
+    }
+
+    @Test
+    public void testTrust() throws IOException {
+        var builder = new OpeningBookBuilder(BoardSpec.STANDARD, 1);
+        builder.addGames(GameArchive.open(writeArchive(10)));
+        Path path = directory.resolve("book.bin");
+        builder.write(path);
+        var book = OpeningBook.open(path);
+
+        // A few games are not enough to play a move without searching
+        var state = GameState.of(BoardSpec.STANDARD);
+        var best = book.getMoves(state).get(0);
+        assertFalse(book.isTrusted(best));
+        assertEquals(Move.NONE, book.probe(state));
+        var engine = new AlphaBetaEngine(1000);
+        engine.setMaxDepth(2);
+        engine.setOpeningBook(book);
+        assertTrue(engine.search(state).depth() > 0);
+
+        book.setTrust(best.games(), 0);
+        assertEquals(best.move(), book.probe(state));
+        book.setTrust(best.games(), best.winRate() + 0.01);
+        assertNotEquals(best.move(), book.probe(state));
+    }
+
+    @Test
+    public void testAnalysisAndEngine() throws IOException {
+        var analysis = new AlphaBetaEngine(1000);
+        analysis.setMaxDepth(3);
+        var builder = new OpeningBookBuilder(BoardSpec.STANDARD, 2);
+        builder.addAnalysis(analysis, 2);
+        Path path = directory.resolve("book.bin");
+        builder.write(path);
+        var book = OpeningBook.open(path);
+
+        var start = GameState.of(BoardSpec.STANDARD);
+        // The start is the first position analysed, so a fresh engine selects the same move
+        var fresh = new AlphaBetaEngine(1000);
+        fresh.setMaxDepth(3);
+        int expected = fresh.search(start).move();
+        assertEquals(new BookMove(expected, OpeningBookBuilder.ANALYSIS_WEIGHT, 0, 0), book.getMoves(start).get(0));
+
+        var engine = new AlphaBetaEngine(1000);
+        engine.setOpeningBook(book);
+        var result = engine.search(start);
+        assertEquals(expected, result.move());
+        assertEquals(0, result.depth());
+        start.makeMove(expected);
+        start.makeMove(book.probe(start));
+        assertTrue(engine.search(start).depth() > 0);
+    }
+
+    @Test
+    public void testNotABook() throws IOException {
+        Path path = directory.resolve("book.bin");
+        Files.write(path, new byte[40]);
+        assertThrows(IllegalArgumentException.class, () -> OpeningBook.open(path));
+    }
+}
@@ -0,0 +1,69 @@
+import boardgame.engine.Perft;
+import boardgame.model.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+
+    @Test
+    public void testPerft() {
+        GameState state = new BoardGameModel().getState();
+        assertEquals(1, Perft.perft(state, 0));
+        assertEquals(19, Perft.perft(state, 1));
+        assertEquals(361, Perft.perft(state, 2));
+        assertEquals(6042, Perft.perft(state, 3));
+        assertEquals(101124, Perft.perft(state, 4));
+        assertEquals(0, state.getPly());
+    }
+
+    @Test
+    public void testPerftMatchesModel() {
+        BoardGameModel bgm = new BoardGameModel();
+        for (int depth = 1; depth <= 4; depth++) {
+            assertEquals(modelPerft(bgm, depth), Perft.perft(bgm.getState(), depth));
+        }
+    }
+
+    @Test
+    public void testDivide() {
+        GameState state = new BoardGameModel().getState();
+        var divide = Perft.divide(state, 4);
+        assertEquals(19, divide.size());
+        assertEquals(101124, divide.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    public void testParallelPerft() {
+        GameState state = new BoardGameModel().getState();
+        assertEquals(Perft.perft(state, 6), Perft.parallelPerft(state, 6));
+    }
+
+    /**
+     * Perft through the public model API, independent of the move generator
+     */
+    private static long modelPerft(BoardGameModel bgm, int depth) {
+        if (bgm.getAllRedValidMoves().isEmpty() || bgm.getAllBlueValidMoves().isEmpty()) {
+            return 0;
+        }
+        long nodes = 0;
+        if (bgm.getNextPlayer() == PieceType.RED) {
+            for (int i = 0; i < bgm.getRedPieceCount(); i++) {
+                for (var direction : bgm.getRedValidMoves(i)) {
+                    bgm.makeMove(Move.of(i, direction));
+                    nodes += depth == 1 ? 1 : modelPerft(bgm, depth - 1);
+                    bgm.unmakeMove();
+                }
+            }
+        } else {
+            for (int i = 0; i < bgm.getBluePieceCount(); i++) {
+                for (var direction : bgm.getBlueValidMoves(i)) {
+                    bgm.makeMove(Move.of(i, direction));
+                    nodes += depth == 1 ? 1 : modelPerft(bgm, depth - 1);
+                    bgm.unmakeMove();
+                }
+            }
+        }
+        return nodes;
+    }
+}
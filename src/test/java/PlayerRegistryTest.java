@@ -0,0 +1,56 @@
+import boardgame.Player;
+import boardgame.PlayerRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerRegistryTest {
+
+    @Test
+    public void testRecordGame() {
+        var registry = new PlayerRegistry();
+        registry.add(new Player("Bob", 3, 1));
+        registry.recordGame("Alice", "Bob");
+        registry.recordGame("Bob", "Carol");
+        assertEquals(3, registry.size());
+        assertTrue(registry.contains("Carol"));
+        assertTrue(registry.getPlayer("Dave").isEmpty());
+        assertEquals(new Player("Bob", 4, 2), registry.getPlayer("Bob").orElseThrow());
+        assertEquals(List.of(new Player("Alice", 1, 0), new Player("Bob", 4, 2), new Player("Carol", 0, 1)),
+                registry.snapshot());
+    }
+
+    @Test
+    public void testConcurrentRecords() throws Exception {
+        var registry = new PlayerRegistry();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int offset = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10000; i++) {
+                        registry.recordGame("Player" + (i + offset) % 10, "Player" + (i + offset + 1) % 10);
+                    }
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        var players = registry.snapshot();
+        assertEquals(10, players.size());
+        for (var player : players) {
+            assertEquals(8000, player.getWins());
+            assertEquals(8000, player.getLosses());
+        }
+    }
+}
@@ -0,0 +1,191 @@
+import boardgame.Player;
+import boardgame.PlayerStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRecordAndReopen() throws IOException {
+        Path path = directory.resolve("players.json");
+        try (var store = PlayerStore.open(path)) {
+            store.recordGame("Alice", "Bob");
+            store.recordGame("Alice", "Carol");
+            store.recordGame("Bob", "Alice");
+            assertEquals(3, store.getPlayerCount());
+            assertEquals(2, store.getPlayer("Alice").orElseThrow().getWins());
+            assertFalse(Files.exists(path));
+        }
+        try (var store = PlayerStore.open(path)) {
+            assertEquals(3, store.getLogLength());
+            var alice = store.getPlayer("Alice").orElseThrow();
+            assertEquals(2, alice.getWins());
+            assertEquals(1, alice.getLosses());
+            assertEquals(1, store.getPlayer("Bob").orElseThrow().getWins());
+            assertEquals(0, store.getPlayer("Carol").orElseThrow().getWins());
+            assertTrue(store.getPlayer("Dave").isEmpty());
+            assertEquals("Alice", store.getPlayers().get(0).getName());
+        }
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        Path path = directory.resolve("players.json");
+        try (var store = PlayerStore.open(path, 4)) {
+            for (int i = 0; i < 10; i++) {
+                store.recordGame("Player" + i % 3, "Other");
+            }
+            assertTrue(Files.exists(path));
+            assertTrue(store.getLogLength() <= 4);
+        }
+        try (var store = PlayerStore.open(path, 4)) {
+            assertEquals(4, store.getPlayerCount());
+            assertEquals(4, store.getPlayer("Player0").orElseThrow().getWins());
+            assertEquals(10, store.getPlayer("Other").orElseThrow().getLosses());
+        }
+    }
+
+    @Test
+    public void testLogAfterInterruptedCompaction() throws IOException {
+        Path path = directory.resolve("players.json");
+        Path log = directory.resolve("players.json.log");
+        try (var store = PlayerStore.open(path)) {
+            store.recordGame("Alice", "Bob");
+            store.recordGame("Alice", "Bob");
+            store.compact();
+        }
+        // The log was not emptied after the snapshot was written, its results are already in the snapshot
+        Files.writeString(log, "{\"sequence\":1,\"winner\":\"Alice\",\"loser\":\"Bob\"}\n"
+                + "{\"sequence\":2,\"winner\":\"Alice\",\"loser\":\"Bob\"}\n"
+                + "{\"sequence\":3,\"winner\":\"Bob\",\"loser\":\"Alice\"}\n", StandardCharsets.UTF_8);
+        try (var store = PlayerStore.open(path)) {
+            assertEquals(2, store.getPlayer("Alice").orElseThrow().getWins());
+            assertEquals(1, store.getPlayer("Bob").orElseThrow().getWins());
+        }
+    }
+
+    @Test
+    public void testUnfinishedRecord() throws IOException {
+        Path path = directory.resolve("players.json");
+        Path log = directory.resolve("players.json.log");
+        try (var store = PlayerStore.open(path)) {
+            store.recordGame("Alice", "Bob");
+        }
+        Files.writeString(log, "{\"sequence\":2,\"win", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        try (var store = PlayerStore.open(path)) {
+            assertEquals(1, store.getLogLength());
+            store.recordGame("Bob", "Alice");
+        }
+        try (var store = PlayerStore.open(path)) {
+            assertEquals(2, store.getLogLength());
+            assertEquals(1, store.getPlayer("Bob").orElseThrow().getWins());
+        }
+        // A whole record without its line break is unfinished too
+        Files.writeString(log, "{\"sequence\":3,\"winner\":\"Bob\",\"loser\":\"Alice\"}",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        try (var store = PlayerStore.open(path)) {
+            assertEquals(2, store.getLogLength());
+            assertEquals(1, store.getPlayer("Bob").orElseThrow().getWins());
+        }
+    }
+
+    @Test
+    public void testOldFormat() throws IOException {
+        Path path = directory.resolve("players.json");
+        Files.writeString(path, "[{\"name\":\"Alice\",\"wins\":5}]", StandardCharsets.UTF_8);
+        try (var store = PlayerStore.open(path)) {
+            store.recordGame("Alice", "Bob");
+            assertEquals(6, store.getPlayer("Alice").orElseThrow().getWins());
+            store.compact();
+        }
+        try (var store = PlayerStore.open(path)) {
+            assertEquals(6, store.getPlayer("Alice").orElseThrow().getWins());
+            assertEquals(1, store.getPlayer("Bob").orElseThrow().getLosses());
+        }
+    }
+
+    @Test
+    public void testConcurrentRecords() throws Exception {
+        Path path = directory.resolve("players.json");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (var store = PlayerStore.open(path, 50)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                String name = "Player" + thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        store.recordGame(name, "Other");
+                    }
+                    return null;
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+            assertEquals(400, store.getPlayer("Other").orElseThrow().getLosses());
+        } finally {
+            executor.shutdown();
+        }
+        try (var store = PlayerStore.open(path, 50)) {
+            assertEquals(5, store.getPlayerCount());
+            assertEquals(400, store.getPlayer("Other").orElseThrow().getLosses());
+            for (int thread = 0; thread < 4; thread++) {
+                assertEquals(100, store.getPlayer("Player" + thread).orElseThrow().getWins());
+            }
+        }
+    }
+
+    @Test
+    public void testLargeSnapshot() throws IOException {
+        Path path = directory.resolve("players.json");
+        var json = new StringBuilder("[");
+        for (int i = 0; i < 100000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"name\":\"Player").append(i).append("\",\"wins\":").append(i % 7)
+                    .append(",\"losses\":1}");
+        }
+        Files.writeString(path, json.append("]"), StandardCharsets.UTF_8);
+        try (var store = PlayerStore.open(path)) {
+            assertEquals(100000, store.getPlayerCount());
+            store.recordGame("Player0", "Player1");
+            store.compact();
+        }
+        try (var store = PlayerStore.open(path)) {
+            assertEquals(0, store.getLogLength());
+            assertEquals(100000, store.getPlayerCount());
+            assertEquals(new Player("Player12345", 4, 1), store.getPlayer("Player12345").orElseThrow());
+            assertEquals(1, store.getPlayer("Player0").orElseThrow().getWins());
+            assertEquals(2, store.getPlayer("Player1").orElseThrow().getLosses());
+        }
+    }
+
+    @Test
+    public void testUnknownFields() throws IOException {
+        Path path = directory.resolve("players.json");
+        Files.writeString(path, "{\"version\":{\"major\":2},\"sequence\":3,"
+                + "\"players\":[{\"name\":\"Alice\",\"wins\":5,\"rating\":[1,2]}]}", StandardCharsets.UTF_8);
+        Files.writeString(directory.resolve("players.json.log"),
+                "{\"sequence\":4,\"winner\":\"Alice\",\"loser\":\"Bob\",\"moves\":{\"count\":20}}\n", StandardCharsets.UTF_8);
+        try (var store = PlayerStore.open(path)) {
+            assertEquals(6, store.getPlayer("Alice").orElseThrow().getWins());
+            assertEquals(1, store.getPlayer("Bob").orElseThrow().getLosses());
+        }
+        Files.writeString(path, "{\"players\":{}}", StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> PlayerStore.open(path));
+    }
+}
@@ -0,0 +1,122 @@
+import boardgame.engine.SolutionDatabase;
+import boardgame.engine.SolutionWriter;
+import boardgame.engine.Solver;
+import boardgame.model.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SolverTest {
+
+    private static BoardState smallState() {
+        return new BoardState(BoardSpec.STANDARD.getBlackBoard(),
+                new int[]{BoardState.cellOf(0, 1), BoardState.cellOf(1, 5)},
+                new int[]{BoardState.cellOf(5, 3), BoardState.cellOf(4, 6)});
+    }
+
+    @Test
+    public void testMatchesMinimax() {
+        var state = smallState();
+        var solver = new Solver(1);
+        assertEquals(minimax(state), solver.isWin(state));
+        state.setNextPlayer(PieceType.RED);
+        assertEquals(minimax(state), solver.isWin(state));
+        assertEquals(solver.isWin(state), new Solver(1).parallelIsWin(state, 2, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void testWideVariant() {
+        // Eight Player2 pieces have more moves than a player of the standard board
+        List<Position> redPieces = new ArrayList<>();
+        for (int col = 0; col < 8; col++) {
+            redPieces.add(new Position(0, col));
+        }
+        var spec = new BoardSpec(4, 8, List.of(), redPieces, List.of(new Position(3, 3)));
+        var state = new BoardState(spec);
+        state.setNextPlayer(PieceType.RED);
+        boolean win = minimax(state);
+        assertEquals(win, new Solver(1).isWin(state));
+        assertEquals(win, new Solver(1).parallelIsWin(state, 2, ForkJoinPool.commonPool()));
+    }
+
+    @Test
+    public void testDatabase(@TempDir Path directory) throws IOException {
+        var state = smallState();
+        var solver = new Solver(1);
+        Path spill = directory.resolve("spill");
+        Path database = directory.resolve("db");
+        boolean win;
+        try (var writer = new SolutionWriter(spill)) {
+            solver.setWriter(writer, 2);
+            win = solver.isWin(state);
+            assertTrue(writer.getCount() > 1);
+        }
+        SolutionDatabase.build(spill, database);
+        var db = SolutionDatabase.open(database);
+        assertEquals(win ? 1 : -1, db.probe(state.getHash()));
+
+        assertLabelled(db, state, 2);
+        state.setNextPlayer(PieceType.RED);
+        assertEquals(0, db.probe(state.getHash()));
+
+        // The parallel search labels the same positions, its pruning stops below the stored plies
+        Path parallelSpill = directory.resolve("parallel.spill");
+        Path parallelDatabase = directory.resolve("parallel.db");
+        state.setNextPlayer(PieceType.BLUE);
+        var parallelSolver = new Solver(1);
+        try (var writer = new SolutionWriter(parallelSpill)) {
+            parallelSolver.setWriter(writer, 2);
+            assertEquals(win, parallelSolver.parallelIsWin(state, 3, ForkJoinPool.commonPool()));
+        }
+        SolutionDatabase.build(parallelSpill, parallelDatabase);
+        assertLabelled(SolutionDatabase.open(parallelDatabase), state, 2);
+    }
+
+    /**
+     * Checks that every position within <code>plies</code> moves of <code>state</code> is labelled in the database
+     */
+    private static void assertLabelled(SolutionDatabase db, BoardState state, int plies) {
+        if (state.isGameOver()) {
+            return;
+        }
+        assertEquals(minimax(state) ? 1 : -1, db.probe(state.getHash()));
+        if (plies == 0) {
+            return;
+        }
+        int[] moves = new int[state.getSpec().getMaxMoves()];
+        int count = state.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            state.makeMove(moves[i]);
+            assertLabelled(db, state, plies - 1);
+            state.unmakeMove();
+        }
+    }
+
+    /**
+     * Plain minimax without any cache
+     */
+    private static boolean minimax(BoardState state) {
+        var winner = state.getWinner();
+        if (winner != null) {
+            return winner == state.getNextPlayer();
+        }
+        int[] moves = new int[state.getSpec().getMaxMoves()];
+        int count = state.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            state.makeMove(moves[i]);
+            boolean opponentWins = minimax(state);
+            state.unmakeMove();
+            if (!opponentWins) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,99 @@
+import boardgame.engine.AlphaBetaEngine;
+import boardgame.engine.Solver;
+import boardgame.engine.Tablebase;
+import boardgame.model.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TablebaseTest {
+
+    @TempDir
+    static Path directory;
+
+    private static long blackBoard;
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    public static void generate() throws IOException {
+        blackBoard = BoardSpec.STANDARD.getBlackBoard();
+        Path path = directory.resolve("endgame.tb");
+        Tablebase.generate(blackBoard, 2, path);
+        tablebase = Tablebase.open(path);
+    }
+
+    @Test
+    public void testTooLarge() {
+        Path path = directory.resolve("large.tb");
+        assertThrows(IllegalArgumentException.class, () -> Tablebase.generate(blackBoard, 4, path));
+        assertFalse(path.toFile().exists());
+    }
+
+    @Test
+    public void testMatchesSolver() {
+        var random = new Random(3);
+        var solver = new Solver(1);
+        int probed = 0;
+        while (probed < 200) {
+            long redBoard = randomCells(random, 1 + random.nextInt(2), blackBoard);
+            long blueBoard = randomCells(random, 1 + random.nextInt(2), blackBoard | redBoard);
+            var state = new BoardState(blackBoard, cells(redBoard), cells(blueBoard));
+            if (random.nextBoolean()) {
+                state.setNextPlayer(PieceType.RED);
+            }
+            int expected = solver.isWin(state) ? Tablebase.WON : Tablebase.LOST;
+            assertEquals(expected, tablebase.probe(state));
+            probed++;
+        }
+    }
+
+    @Test
+    public void testNotCovered() {
+        var state = new BoardState(BoardSpec.STANDARD);
+        assertEquals(2, tablebase.getMaxPieces());
+        assertEquals(Tablebase.UNKNOWN, tablebase.probe(state));
+        var otherLayout = new BoardState(0L, new int[]{BoardState.cellOf(0, 0)}, new int[]{BoardState.cellOf(5, 6)});
+        assertEquals(Tablebase.UNKNOWN, tablebase.probe(otherLayout));
+    }
+
+    @Test
+    public void testEngineProbes() {
+        var state = new BoardState(blackBoard,
+                new int[]{BoardState.cellOf(0, 1), BoardState.cellOf(1, 5)},
+                new int[]{BoardState.cellOf(5, 3), BoardState.cellOf(4, 6)});
+        var engine = new AlphaBetaEngine(1000);
+        engine.setTablebase(tablebase);
+        var result = engine.search(state);
+        boolean win = new Solver(1).isWin(state);
+        assertEquals(win, result.score() >= AlphaBetaEngine.WIN_BOUND);
+        state.makeMove(result.move());
+        if (win) {
+            assertEquals(Tablebase.LOST, tablebase.probe(state));
+        }
+    }
+
+    private static long randomCells(Random random, int count, long occupied) {
+        long board = 0;
+        while (Long.bitCount(board) < count) {
+            int cell = random.nextInt(BoardState.CELL_COUNT);
+            if ((occupied >>> cell & 1L) == 0) {
+                board |= 1L << cell;
+            }
+        }
+        return board;
+    }
+
+    private static int[] cells(long board) {
+        int[] cells = new int[Long.bitCount(board)];
+        for (int i = 0; board != 0; board &= board - 1) {
+            cells[i++] = Long.numberOfTrailingZeros(board);
+        }
+        return cells;
+    }
+}
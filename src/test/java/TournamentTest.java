@@ -0,0 +1,28 @@
+import boardgame.Tournament;
+import boardgame.engine.AlphaBetaEngine;
+import boardgame.engine.RandomEngine;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+
+    @Test
+    public void testRandomGames() throws InterruptedException {
+        var result = new Tournament(() -> new RandomEngine(1), () -> new RandomEngine(2), 2).run(200);
+        assertEquals(200, result.games());
+        assertEquals(200, result.blueWins() + result.redWins());
+        assertTrue(result.averageLength() > 0);
+    }
+
+    @Test
+    public void testEngineBeatsRandom() throws InterruptedException {
+        // A fixed depth and a budget it never reaches, so the games do not depend on the speed of the machine
+        var result = new Tournament(() -> new RandomEngine(3), () -> {
+            var engine = new AlphaBetaEngine(60_000);
+            engine.setMaxDepth(3);
+            return engine;
+        }, 2).run(10);
+        assertTrue(result.redWins() >= 8, result.toString());
+    }
+}
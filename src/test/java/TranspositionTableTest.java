@@ -0,0 +1,77 @@
+import boardgame.engine.TranspositionTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    @Test
+    public void testStoreAndProbe() {
+        var table = new TranspositionTable(1);
+        assertEquals(1 << 16, table.getCapacity());
+        assertEquals(TranspositionTable.MISS, table.probe(12345L));
+
+        table.store(12345L, 7, TranspositionTable.LOWER, -300, 13);
+        long data = table.probe(12345L);
+        assertNotEquals(TranspositionTable.MISS, data);
+        assertEquals(7, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(data));
+        assertEquals(-300, TranspositionTable.score(data));
+        assertEquals(13, TranspositionTable.move(data));
+
+        table.store(99L, 0, TranspositionTable.EXACT, 5, -1);
+        assertEquals(-1, TranspositionTable.move(table.probe(99L)));
+
+        table.clear();
+        assertEquals(TranspositionTable.MISS, table.probe(12345L));
+    }
+
+    @Test
+    public void testReplacement() {
+        var table = new TranspositionTable(1);
+        long buckets = table.getCapacity() / 2;
+        long deep = 5;
+        long shallow = deep + buckets;
+        long other = deep + 2 * buckets;
+
+        table.store(deep, 10, TranspositionTable.EXACT, 1, 1);
+        table.store(shallow, 2, TranspositionTable.EXACT, 2, 2);
+        table.store(other, 3, TranspositionTable.EXACT, 3, 3);
+        assertEquals(1, TranspositionTable.score(table.probe(deep)));
+        assertEquals(TranspositionTable.MISS, table.probe(shallow));
+        assertEquals(3, TranspositionTable.score(table.probe(other)));
+
+        table.newSearch();
+        table.store(shallow, 1, TranspositionTable.EXACT, 2, 2);
+        assertEquals(2, TranspositionTable.score(table.probe(shallow)));
+        assertEquals(1, TranspositionTable.score(table.probe(deep)));
+    }
+
+    @Test
+    public void testConcurrentAccess() throws InterruptedException {
+        var table = new TranspositionTable(1);
+        var threads = new Thread[4];
+        var failed = new boolean[1];
+        for (int t = 0; t < threads.length; t++) {
+            long seed = t;
+            threads[t] = new Thread(() -> {
+                var random = new SplittableRandom(seed);
+                for (int i = 0; i < 1_000_000; i++) {
+                    long key = random.nextLong(1 << 18);
+                    long data = table.probe(key);
+                    if (data != TranspositionTable.MISS && TranspositionTable.score(data) != (short) key) {
+                        failed[0] = true;
+                    }
+                    table.store(key, random.nextInt(20), TranspositionTable.EXACT, (short) key, 0);
+                }
+            });
+            threads[t].start();
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+        assertFalse(failed[0]);
+    }
+}